@@ -0,0 +1,136 @@
+package sun.asterisk.booking_tour.config;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+
+import io.jsonwebtoken.Claims;
+import sun.asterisk.booking_tour.entity.Role;
+import sun.asterisk.booking_tour.entity.User;
+
+/**
+ * Token issue on login and the per-request parsing done by the authentication filter,
+ * for the shared-secret and keyset algorithms, with the verified-token cache disabled (0)
+ * and enabled
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    @Param({"0", "10000"})
+    private int verifiedCacheSize;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private User user;
+    private String tokenKey;
+    private String accessToken;
+
+    @Setup
+    public void setUp() throws IOException, GeneralSecurityException {
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+
+        jwtTokenProvider = new JwtTokenProvider();
+        setField("jwtSecret", Base64.getEncoder().encodeToString(secret));
+        setField("algorithm", algorithm);
+        if (!"HS256".equals(algorithm)) {
+            setField("keyDir", writeKeyDir().toString());
+        }
+        setField("jwtExpiration", 3_600_000L);
+        setField("refreshExpiration", 604_800_000L);
+        setField("verifiedCacheSize", verifiedCacheSize);
+        jwtTokenProvider.init();
+
+        Role role = new Role();
+        role.setName("USER");
+
+        user = new User();
+        user.setId(42L);
+        user.setEmail("benchmark@example.com");
+        user.setRole(role);
+
+        tokenKey = jwtTokenProvider.generateTokenKey();
+        accessToken = jwtTokenProvider.generateAccessToken(user, tokenKey);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtTokenProvider.generateAccessToken(user, tokenKey);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(accessToken);
+    }
+
+    /**
+     * What JwtAuthenticationFilter reads from a token on every authenticated request
+     */
+    @Benchmark
+    public void authenticateRequest(Blackhole blackhole) {
+        Claims claims = jwtTokenProvider.parseClaims(accessToken);
+        blackhole.consume(claims.get("tokenKey", String.class));
+        blackhole.consume(claims.get("userId", Long.class));
+    }
+
+    /**
+     * Key directory with one freshly generated pair for the benchmarked algorithm
+     */
+    private Path writeKeyDir() throws IOException, GeneralSecurityException {
+        KeyPairGenerator generator;
+        if ("ES256".equals(algorithm)) {
+            generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+        } else {
+            generator = KeyPairGenerator.getInstance("Ed25519");
+        }
+        KeyPair keyPair = generator.generateKeyPair();
+
+        Path dir = Files.createTempDirectory("jwt-keys");
+        dir.toFile().deleteOnExit();
+        writePem(dir.resolve("bench.key"), "PRIVATE KEY", keyPair.getPrivate().getEncoded());
+        writePem(dir.resolve("bench.pub"), "PUBLIC KEY", keyPair.getPublic().getEncoded());
+        return dir;
+    }
+
+    private static void writePem(Path file, String type, byte[] der) throws IOException {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der);
+        Files.writeString(file, "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n");
+        file.toFile().deleteOnExit();
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(JwtTokenProvider.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, jwtTokenProvider, value);
+    }
+}
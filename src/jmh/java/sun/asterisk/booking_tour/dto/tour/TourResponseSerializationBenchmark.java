@@ -0,0 +1,152 @@
+package sun.asterisk.booking_tour.dto.tour;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import sun.asterisk.booking_tour.dto.common.PageResponse;
+
+/**
+ * JSON writing of a search results page and of a tour detail, with an ObjectMapper
+ * configured the way Spring Boot configures the one used by the controllers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TourResponseSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    private ObjectMapper objectMapper;
+    private PageResponse<TourSearchResponse> searchPage;
+    private TourDetailResponse detail;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<TourSearchResponse> content = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            content.add(TourSearchResponse.builder()
+                    .id(id)
+                    .name("Tour Phú Quốc 3N2Đ #" + id)
+                    .title("Khám phá thiên đường biển đảo")
+                    .slug("tour-phu-quoc-3n2d-" + id)
+                    .thumbnailUrl("https://example.com/tours/tour-phu-quoc-3n2d-" + id + ".jpg")
+                    .departureLocation("Hà Nội")
+                    .mainDestination("Phú Quốc")
+                    .durationDays(3)
+                    .durationNights(2)
+                    .priceAdult(new BigDecimal("3500000.00"))
+                    .priceChild(new BigDecimal("2500000.00"))
+                    .discountRate(new BigDecimal("15.00"))
+                    .finalPrice(new BigDecimal("2975000.00"))
+                    .categoryId(1L)
+                    .categoryName("Tour biển đảo")
+                    .averageRating(4.6)
+                    .totalReviews(128L)
+                    .totalLikes(512L)
+                    .hasAvailableSlots(true)
+                    .nextDepartureDate(LocalDate.now().plusDays(7))
+                    .build());
+        }
+        searchPage = PageResponse.<TourSearchResponse>builder()
+                .content(content)
+                .pageNumber(0)
+                .pageSize(PAGE_SIZE)
+                .totalElements(1000L)
+                .totalPages(100)
+                .isFirst(true)
+                .isLast(false)
+                .hasNext(true)
+                .hasPrevious(false)
+                .totalApproximate(false)
+                .build();
+
+        List<TourDetailResponse.TourImageInfo> images = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            images.add(TourDetailResponse.TourImageInfo.builder()
+                    .id((long) i + 1)
+                    .imageUrl("https://example.com/tours/tour-phu-quoc-3n2d/" + i + ".jpg")
+                    .caption("Bãi Sao")
+                    .isPrimary(i == 0)
+                    .displayOrder(i)
+                    .build());
+        }
+        List<TourDetailResponse.DepartureInfo> departures = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            LocalDate departureDate = LocalDate.now().plusWeeks(i);
+            departures.add(TourDetailResponse.DepartureInfo.builder()
+                    .id((long) i)
+                    .departureDate(departureDate)
+                    .returnDate(departureDate.plusDays(2))
+                    .totalSlots(30)
+                    .availableSlots(25)
+                    .status("OPEN")
+                    .build());
+        }
+        detail = TourDetailResponse.builder()
+                .id(1L)
+                .name("Tour Phú Quốc 3N2Đ")
+                .title("Khám phá thiên đường biển đảo")
+                .slug("tour-phu-quoc-3n2d")
+                .description("Tour Phú Quốc 3N2Đ - Khám phá thiên đường biển đảo. Chương trình tour bao gồm: "
+                        + "di chuyển, ăn uống, khách sạn, hướng dẫn viên chuyên nghiệp.")
+                .itinerary("Ngày 1: Khởi hành...\nNgày 2: Tham quan...\nNgày 3: Về...")
+                .thumbnailUrl("https://example.com/tours/tour-phu-quoc-3n2d.jpg")
+                .departureLocation("Hà Nội")
+                .mainDestination("Phú Quốc")
+                .durationDays(3)
+                .durationNights(2)
+                .priceAdult(new BigDecimal("3500000.00"))
+                .priceChild(new BigDecimal("2500000.00"))
+                .discountRate(new BigDecimal("15.00"))
+                .finalPrice(new BigDecimal("2975000.00"))
+                .category(TourDetailResponse.CategoryInfo.builder()
+                        .id(1L)
+                        .name("Tour biển đảo")
+                        .slug("tour-bien-dao")
+                        .build())
+                .creator(TourDetailResponse.CreatorInfo.builder()
+                        .id(1L)
+                        .name("Admin System")
+                        .email("admin@example.com")
+                        .build())
+                .averageRating(4.6)
+                .totalReviews(128L)
+                .totalLikes(512L)
+                .images(images)
+                .upcomingDepartures(departures)
+                .build();
+    }
+
+    @Benchmark
+    public String serializeSearchPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(searchPage);
+    }
+
+    @Benchmark
+    public String serializeDetail() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(detail);
+    }
+}
@@ -0,0 +1,57 @@
+package sun.asterisk.booking_tour.service;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * JSON round trip of the Redis email queue message, as done by
+ * {@link EmailQueueService} on enqueue and {@link RedisEmailWorker} on poll and retry
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailMessageBenchmark {
+
+    private ObjectMapper objectMapper;
+    private EmailQueueService.RedisEmailMessage message;
+    private String payload;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        message = new EmailQueueService.RedisEmailMessage();
+        message.setType(EmailQueueService.RedisEmailMessage.TYPE_BOOKING_PAYMENT_SUCCESS);
+        message.setBookingCode("BK1A2B3C4D5E6F");
+        message.setAttempt(2);
+
+        payload = objectMapper.writeValueAsString(message);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(message);
+    }
+
+    @Benchmark
+    public EmailQueueService.RedisEmailMessage deserialize() throws JsonProcessingException {
+        return objectMapper.readValue(payload, EmailQueueService.RedisEmailMessage.class);
+    }
+}
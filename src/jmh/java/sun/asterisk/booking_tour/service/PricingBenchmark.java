@@ -0,0 +1,50 @@
+package sun.asterisk.booking_tour.service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BigDecimal price math run for every tour in a search page and every booking line
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+
+    private BigDecimal priceAdult;
+    private BigDecimal priceChild;
+    private BigDecimal discountRate;
+
+    @Setup
+    public void setUp() {
+        priceAdult = new BigDecimal("3500000.00");
+        priceChild = new BigDecimal("2500000.00");
+        discountRate = new BigDecimal("15.00");
+    }
+
+    @Benchmark
+    public BigDecimal tourFinalPrice() {
+        return TourService.calculateFinalPrice(priceAdult, discountRate);
+    }
+
+    @Benchmark
+    public BigDecimal bookingDiscount() {
+        BigDecimal subTotal = priceAdult.multiply(BigDecimal.valueOf(2))
+                .add(priceChild.multiply(BigDecimal.valueOf(1)));
+        return BookingService.calculateDiscount(subTotal, discountRate);
+    }
+}
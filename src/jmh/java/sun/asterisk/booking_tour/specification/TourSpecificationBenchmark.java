@@ -0,0 +1,100 @@
+package sun.asterisk.booking_tour.specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import sun.asterisk.booking_tour.dto.tour.TourSearchRequest;
+import sun.asterisk.booking_tour.entity.*;
+
+/**
+ * Criteria construction for tour search, without executing the query. Hibernate is
+ * bootstrapped against the entity model only, so no database is needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TourSpecificationBenchmark {
+
+    @Param({"filters", "keyword"})
+    private String criteria;
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder criteriaBuilder;
+    private TourSearchRequest request;
+
+    @Setup
+    public void setUp() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .applySetting("hibernate.temp.use_jdbc_metadata_defaults", false)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClasses(
+                        Booking.class, Category.class, Comment.class, Like.class, Payment.class,
+                        Review.class, Role.class, Token.class, Tour.class, TourDeparture.class,
+                        TourImage.class, TourStats.class, User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+
+        request = "keyword".equals(criteria)
+                ? TourSearchRequest.builder()
+                        .keyword("phu quoc")
+                        .sortBy("relevance")
+                        .build()
+                : TourSearchRequest.builder()
+                        .departureLocation("Hà Nội")
+                        .categoryId(1L)
+                        .minPrice(new BigDecimal("1000000"))
+                        .maxPrice(new BigDecimal("5000000"))
+                        .minDuration(2)
+                        .maxDuration(5)
+                        .departureFrom(LocalDate.now())
+                        .departureTo(LocalDate.now().plusMonths(2))
+                        .minRating(4)
+                        .hasDiscount(true)
+                        .hasAvailableSlots(true)
+                        .sortBy("price")
+                        .sortOrder("asc")
+                        .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate buildSearchPredicate() {
+        CriteriaQuery<Tour> query = criteriaBuilder.createQuery(Tour.class);
+        Root<Tour> root = query.from(Tour.class);
+        return TourSpecification.withSearchCriteria(request).toPredicate(root, query, criteriaBuilder);
+    }
+}
@@ -0,0 +1,205 @@
+package sun.asterisk.booking_tour.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import sun.asterisk.booking_tour.dto.booking.CreateBookingRequest;
+import sun.asterisk.booking_tour.entity.TourDeparture;
+import sun.asterisk.booking_tour.enums.TourDepartureStatus;
+import sun.asterisk.booking_tour.exception.ValidationException;
+import sun.asterisk.booking_tour.repository.TourDepartureRepository;
+import sun.asterisk.booking_tour.repository.TourRepository;
+import sun.asterisk.booking_tour.service.BookingService;
+import sun.asterisk.booking_tour.service.HotDepartureService;
+
+/**
+ * Oversell check: many threads call BookingService.createBooking for one departure at
+ * once, far more seats than it has, first through the database path (conditional
+ * decrement of the departure row) and then through the hot departure path (Redis
+ * counter, reconciled into the row afterwards). After each run the seats held by
+ * bookings must not exceed the capacity, available_slots must not go negative and the
+ * two must add up. Throughput and latency of the calls are reported per path.
+ *
+ * Tuning: load.oversell.capacity, load.oversell.requests, load.oversell.threads
+ */
+class BookingConcurrencyLoadTest extends LoadTestSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingConcurrencyLoadTest.class);
+
+    private static final int BOOKED = 201;
+    private static final int SOLD_OUT = 409;
+    private static final int FAILED = 500;
+
+    private final int capacity = Integer.getInteger("load.oversell.capacity", 100);
+    private final int requests = Integer.getInteger("load.oversell.requests", 2_000);
+    private final int threads = Integer.getInteger("load.oversell.threads", 64);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private HotDepartureService hotDepartureService;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private TourDepartureRepository tourDepartureRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Test
+    void databasePathDoesNotOversell() throws Exception {
+        long departureId = createDeparture();
+
+        String report = run("database", departureId);
+
+        assertNoOversell(departureId);
+        write("oversell-database-report.txt", report);
+    }
+
+    @Test
+    void hotDeparturePathDoesNotOversell() throws Exception {
+        long departureId = createDeparture();
+        HotDepartureService target = AopTestUtils.getTargetObject(hotDepartureService);
+        Object enabled = ReflectionTestUtils.getField(target, "enabled");
+        Object hotDepartureIds = ReflectionTestUtils.getField(target, "hotDepartureIds");
+
+        ReflectionTestUtils.setField(target, "enabled", true);
+        ReflectionTestUtils.setField(target, "hotDepartureIds", Set.of(departureId));
+        try {
+            String report = run("hot", departureId);
+
+            // Push the seats taken in Redis down to the departure row before checking it
+            hotDepartureService.reconcile();
+            String stock = redisTemplate.opsForValue().get("hot-departure:stock:" + departureId);
+            assertThat(Long.parseLong(stock)).as("Redis stock").isGreaterThanOrEqualTo(0);
+            assertNoOversell(departureId);
+            write("oversell-hot-report.txt", report);
+        } finally {
+            ReflectionTestUtils.setField(target, "enabled", enabled);
+            ReflectionTestUtils.setField(target, "hotDepartureIds", hotDepartureIds);
+        }
+    }
+
+    private String run(String path, long departureId) throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        AtomicLong seatsBooked = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+
+        List<Future<?>> calls = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            calls.add(workers.submit(() -> {
+                start.await();
+                book(path, departureId, recorder, seatsBooked);
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> call : calls) {
+            call.get();
+        }
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        workers.shutdown();
+
+        String report = recorder.report(elapsedSeconds);
+        logger.info("Oversell run on the {} path (capacity={}, requests={}, threads={}, seatsBooked={})\n{}",
+                path, capacity, requests, threads, seatsBooked.get(), report);
+
+        assertThat(recorder.serverErrors()).as("unexpected failures").isZero();
+        assertThat(seatsBooked.get()).as("seats booked").isLessThanOrEqualTo(capacity);
+        return report;
+    }
+
+    private void book(String path, long departureId, LatencyRecorder recorder, AtomicLong seatsBooked) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int adults = 1 + random.nextInt(2);
+        int children = random.nextInt(2);
+        CreateBookingRequest request = CreateBookingRequest.builder()
+                .tourDepartureId(departureId)
+                .numAdults(adults)
+                .numChildren(children)
+                .contactName("Load Test")
+                .contactEmail("load-test@example.com")
+                .contactPhone("+84900000000")
+                .build();
+
+        long startedAt = System.nanoTime();
+        int outcome;
+        try {
+            bookingService.createBooking(request);
+            seatsBooked.addAndGet(adults + children);
+            outcome = BOOKED;
+        } catch (ValidationException e) {
+            outcome = SOLD_OUT;
+        } catch (RuntimeException e) {
+            logger.warn("Booking failed on the {} path", path, e);
+            outcome = FAILED;
+        }
+        recorder.record(path, System.nanoTime() - startedAt, outcome);
+    }
+
+    private long createDeparture() {
+        Long tourId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM tours", Long.class);
+        return transactionTemplate.execute(status -> {
+            TourDeparture departure = new TourDeparture();
+            departure.setTour(tourRepository.getReferenceById(tourId));
+            departure.setDepartureDate(LocalDate.now().plusMonths(3));
+            departure.setReturnDate(LocalDate.now().plusMonths(3).plusDays(3));
+            departure.setTotalSlots(capacity);
+            departure.setAvailableSlots(capacity);
+            departure.setStatus(TourDepartureStatus.OPEN);
+            return tourDepartureRepository.save(departure).getId();
+        });
+    }
+
+    private void assertNoOversell(long departureId) {
+        long booked = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(num_adults + num_children), 0) FROM bookings "
+                        + "WHERE tour_departure_id = ? AND status <> 'CANCELLED'",
+                Long.class, departureId);
+        int availableSlots = jdbcTemplate.queryForObject(
+                "SELECT available_slots FROM tour_departures WHERE id = ?", Integer.class, departureId);
+
+        assertThat(booked).as("seats held by bookings").isLessThanOrEqualTo(capacity);
+        assertThat(availableSlots).as("available_slots").isGreaterThanOrEqualTo(0);
+        assertThat(booked + availableSlots).as("booked + available_slots").isEqualTo(capacity);
+    }
+
+    private void write(String fileName, String report) throws Exception {
+        Files.createDirectories(Path.of("target"));
+        Files.writeString(Path.of("target", fileName), report);
+    }
+}
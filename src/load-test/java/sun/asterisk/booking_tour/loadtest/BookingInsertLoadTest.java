@@ -0,0 +1,233 @@
+package sun.asterisk.booking_tour.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import sun.asterisk.booking_tour.entity.Booking;
+import sun.asterisk.booking_tour.enums.BookingStatus;
+import sun.asterisk.booking_tour.repository.BookingRepository;
+import sun.asterisk.booking_tour.repository.TourDepartureRepository;
+
+/**
+ * Insert throughput for bookings with IDENTITY ids against pooled SEQUENCE ids.
+ *
+ * Both id strategies are replayed over plain JDBC on scratch copies of the bookings
+ * table, issuing the statements Hibernate issues for each: with IDENTITY one
+ * INSERT ... RETURNING round trip per row (Hibernate cannot batch these), with a pooled
+ * sequence one nextval per allocation block and inserts sent in JDBC batches. The real
+ * path, BookingRepository.saveAll with the application's batching settings, is
+ * measured too. Each run inserts load.insert.rows rows, committing every
+ * load.insert.rows-per-transaction.
+ */
+class BookingInsertLoadTest extends LoadTestSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingInsertLoadTest.class);
+
+    private static final int SEQUENCE_INCREMENT = 50;
+    private static final String INSERT_COLUMNS = "code, status, num_adults, num_children, sub_total, discount, "
+            + "final_total, contact_name, contact_email, contact_phone, tour_departure_id, created_at, updated_at";
+    private static final String INSERT_VALUES = "?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?";
+
+    private final int rows = Integer.getInteger("load.insert.rows", 20_000);
+    private final int rowsPerTransaction = Integer.getInteger("load.insert.rows-per-transaction", 1_000);
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TourDepartureRepository tourDepartureRepository;
+
+    @Test
+    void insertThroughput() throws Exception {
+        long departureId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM tour_departures", Long.class);
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_bookings_identity, bench_bookings_sequence");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS bench_bookings_sequence_seq");
+        jdbcTemplate.execute("CREATE TABLE bench_bookings_identity (LIKE bookings INCLUDING DEFAULTS INCLUDING INDEXES)");
+        jdbcTemplate.execute("ALTER TABLE bench_bookings_identity ALTER COLUMN id DROP DEFAULT");
+        jdbcTemplate.execute("ALTER TABLE bench_bookings_identity ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY");
+        jdbcTemplate.execute("CREATE TABLE bench_bookings_sequence (LIKE bookings INCLUDING DEFAULTS INCLUDING INDEXES)");
+        jdbcTemplate.execute("ALTER TABLE bench_bookings_sequence ALTER COLUMN id DROP DEFAULT");
+        jdbcTemplate.execute("CREATE SEQUENCE bench_bookings_sequence_seq INCREMENT BY " + SEQUENCE_INCREMENT);
+
+        try {
+            // Warm up connections, statement caches and the JIT on a tenth of the rows
+            insertWithIdentity(departureId, rows / 10, "warmup-identity-");
+            insertWithSequence(departureId, rows / 10, "warmup-sequence-");
+            insertWithRepository(departureId, rows / 10, "warmup-orm-");
+
+            StringBuilder report = new StringBuilder(String.format("%-22s %9s %9s %12s%n",
+                    "strategy", "rows", "ms", "rows/s"));
+            report.append(measure("identity (row by row)", () -> insertWithIdentity(departureId, rows, "identity-")));
+            report.append(measure("sequence (batched)", () -> insertWithSequence(departureId, rows, "sequence-")));
+            report.append(measure("saveAll (application)", () -> insertWithRepository(departureId, rows, "orm-")));
+
+            logger.info("Booking insert throughput (batch_size={}, rowsPerTransaction={})\n{}",
+                    batchSize, rowsPerTransaction, report);
+            Files.createDirectories(Path.of("target"));
+            Files.writeString(Path.of("target", "insert-throughput-report.txt"), report);
+
+            assertThat(count("bench_bookings_identity", "identity-%")).isEqualTo(rows);
+            assertThat(count("bench_bookings_sequence", "sequence-%")).isEqualTo(rows);
+            assertThat(count("bookings", "bench-orm-%")).isEqualTo(rows);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS bench_bookings_identity, bench_bookings_sequence");
+            jdbcTemplate.execute("DROP SEQUENCE IF EXISTS bench_bookings_sequence_seq");
+            jdbcTemplate.update("DELETE FROM bookings WHERE code LIKE 'bench-%'");
+        }
+    }
+
+    private String measure(String strategy, Run run) throws Exception {
+        long startedAt = System.nanoTime();
+        run.run();
+        double millis = (System.nanoTime() - startedAt) / 1_000_000.0;
+        return String.format("%-22s %9d %9.0f %12.0f%n", strategy, rows, millis, rows / (millis / 1000));
+    }
+
+    /**
+     * What Hibernate does for GenerationType.IDENTITY: every persist executes its INSERT
+     * immediately to read back the generated id, so nothing is batched
+     */
+    private void insertWithIdentity(long departureId, int count, String codePrefix) throws SQLException {
+        String sql = "INSERT INTO bench_bookings_identity (" + INSERT_COLUMNS + ") VALUES (" + INSERT_VALUES + ")";
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < count; i++) {
+                    bind(insert, 1, codePrefix + i, departureId);
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        keys.next();
+                    }
+                    if ((i + 1) % rowsPerTransaction == 0) {
+                        connection.commit();
+                    }
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    /**
+     * What Hibernate does for a pooled sequence: one nextval hands out a block of ids,
+     * and inserts are flushed in JDBC batches of hibernate.jdbc.batch_size
+     */
+    private void insertWithSequence(long departureId, int count, String codePrefix) throws SQLException {
+        String sql = "INSERT INTO bench_bookings_sequence (id, " + INSERT_COLUMNS + ") VALUES (?, " + INSERT_VALUES + ")";
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement nextval = connection.prepareStatement("SELECT nextval('bench_bookings_sequence_seq')");
+                 PreparedStatement insert = connection.prepareStatement(sql)) {
+                long nextId = 0;
+                long blockEnd = 0;
+                for (int i = 0; i < count; i++) {
+                    if (nextId >= blockEnd) {
+                        try (ResultSet result = nextval.executeQuery()) {
+                            result.next();
+                            nextId = result.getLong(1);
+                            blockEnd = nextId + SEQUENCE_INCREMENT;
+                        }
+                    }
+                    insert.setLong(1, nextId++);
+                    bind(insert, 2, codePrefix + i, departureId);
+                    insert.addBatch();
+
+                    boolean endOfTransaction = (i + 1) % rowsPerTransaction == 0;
+                    if ((i + 1) % batchSize == 0 || endOfTransaction) {
+                        insert.executeBatch();
+                    }
+                    if (endOfTransaction) {
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private void insertWithRepository(long departureId, int count, String codePrefix) {
+        for (int offset = 0; offset < count; offset += rowsPerTransaction) {
+            int from = offset;
+            int to = Math.min(count, offset + rowsPerTransaction);
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Booking> bookings = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    Booking booking = new Booking();
+                    booking.setTourDeparture(tourDepartureRepository.getReferenceById(departureId));
+                    booking.setCode("bench-" + codePrefix + i);
+                    booking.setStatus(BookingStatus.CANCELLED);
+                    booking.setNumAdults(2);
+                    booking.setNumChildren(1);
+                    booking.setSubTotal(new BigDecimal("5000000.00"));
+                    booking.setDiscount(BigDecimal.ZERO);
+                    booking.setFinalTotal(new BigDecimal("5000000.00"));
+                    booking.setContactName("Load Test");
+                    booking.setContactEmail("load-test@example.com");
+                    booking.setContactPhone("+84900000000");
+                    bookings.add(booking);
+                }
+                bookingRepository.saveAll(bookings);
+            });
+        }
+    }
+
+    private void bind(PreparedStatement insert, int index, String code, long departureId) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        insert.setString(index++, code);
+        insert.setString(index++, BookingStatus.CANCELLED.name());
+        insert.setInt(index++, 2);
+        insert.setInt(index++, 1);
+        insert.setBigDecimal(index++, new BigDecimal("5000000.00"));
+        insert.setBigDecimal(index++, BigDecimal.ZERO);
+        insert.setBigDecimal(index++, new BigDecimal("5000000.00"));
+        insert.setString(index++, "Load Test");
+        insert.setString(index++, "load-test@example.com");
+        insert.setString(index++, "+84900000000");
+        insert.setLong(index++, departureId);
+        insert.setObject(index++, now);
+        insert.setObject(index, now);
+    }
+
+    private long count(String table, String codePattern) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE code LIKE ?", Long.class, codePattern);
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        void run() throws Exception;
+    }
+}
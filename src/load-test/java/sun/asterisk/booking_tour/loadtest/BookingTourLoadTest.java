@@ -0,0 +1,290 @@
+package sun.asterisk.booking_tour.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import sun.asterisk.booking_tour.config.JwtTokenProvider;
+import sun.asterisk.booking_tour.entity.Token;
+import sun.asterisk.booking_tour.entity.User;
+import sun.asterisk.booking_tour.repository.TokenRepository;
+import sun.asterisk.booking_tour.repository.UserRepository;
+
+/**
+ * Drives a mix of anonymous browsing (search, detail) and signed-in purchase sessions
+ * (booking, checkout, logout) over HTTP and reports throughput and latency percentiles
+ * per endpoint.
+ *
+ * Runs only with the load-test profile, against the embedded stand-ins set up by
+ * LoadTestSupport; the synthetic seeder fills the database. Sign-in goes through an
+ * external OAuth provider in production, so sessions get their tokens minted
+ * directly, the same way AuthService issues them.
+ *
+ * Tuning: load.duration-seconds, load.warmup-seconds, load.concurrency,
+ * load.booking-ratio, load.checkout-ratio, load.max-server-error-rate
+ */
+class BookingTourLoadTest extends LoadTestSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingTourLoadTest.class);
+
+    private static final String[] KEYWORDS = {"Phu Quoc", "Sapa", "Nha Trang", "Da Lat", "Ha Long", "Hue", "Hoi An"};
+    private static final String[] DESTINATIONS = {"Phú Quốc", "Sapa", "Nha Trang", "Đà Lạt", "Hạ Long", "Huế"};
+    private static final String[] SORTS = {"newest", "price", "rating", "popular", "discount"};
+    private static final int TRANSPORT_FAILURE = 599;
+
+    private final long durationSeconds = Long.getLong("load.duration-seconds", 30);
+    private final long warmupSeconds = Long.getLong("load.warmup-seconds", 10);
+    private final int concurrency = Integer.getInteger("load.concurrency", 16);
+    private final double bookingRatio = Double.parseDouble(System.getProperty("load.booking-ratio", "0.2"));
+    private final double checkoutRatio = Double.parseDouble(System.getProperty("load.checkout-ratio", "0.7"));
+    private final double maxServerErrorRate =
+            Double.parseDouble(System.getProperty("load.max-server-error-rate", "0.001"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void mixedTraffic() throws Exception {
+        List<User> users = loadUsers(concurrency * 4);
+
+        logger.info("Warming up for {}s with {} workers", warmupSeconds, concurrency);
+        run(users, warmupSeconds, new LatencyRecorder());
+
+        logger.info("Measuring for {}s with {} workers", durationSeconds, concurrency);
+        LatencyRecorder recorder = new LatencyRecorder();
+        long startedAt = System.nanoTime();
+        run(users, durationSeconds, recorder);
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        String report = recorder.report(elapsedSeconds);
+        logger.info("Load test results (concurrency={}, bookingRatio={}, checkoutRatio={})\n{}",
+                concurrency, bookingRatio, checkoutRatio, report);
+        Files.createDirectories(Path.of("target"));
+        Files.writeString(Path.of("target", "load-test-report.txt"), report);
+
+        assertThat(recorder.requests()).isPositive();
+        assertThat(recorder.serverErrors())
+                .as("server errors")
+                .isLessThanOrEqualTo((long) (recorder.requests() * maxServerErrorRate));
+    }
+
+    private void run(List<User> users, long seconds, LatencyRecorder recorder) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        session(users, recorder);
+                    } catch (Exception e) {
+                        logger.warn("Load test session failed", e);
+                    }
+                }
+            });
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+    }
+
+    /**
+     * One visitor: a search, usually a detail page, and for some a booking that may go
+     * on to checkout before signing out
+     */
+    private void session(List<User> users, LatencyRecorder recorder) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        JsonNode page = send(recorder, "search", request(searchPath(random)).GET());
+        JsonNode tours = page != null ? page.path("content") : MissingNode.getInstance();
+        if (!tours.isArray() || tours.isEmpty()) {
+            return;
+        }
+
+        String slug = tours.get(random.nextInt(tours.size())).path("slug").asText();
+        JsonNode detail = send(recorder, "detail", request("/api/v1/tours/" + slug).GET());
+        if (detail == null || random.nextDouble() >= bookingRatio) {
+            return;
+        }
+
+        JsonNode departure = pickDeparture(detail, random);
+        if (departure == null) {
+            return;
+        }
+
+        User user = users.get(random.nextInt(users.size()));
+        String accessToken = login(user);
+        try {
+            Map<String, Object> booking = new LinkedHashMap<>();
+            booking.put("tourDepartureId", departure.path("id").asLong());
+            booking.put("numAdults", 1 + random.nextInt(2));
+            booking.put("numChildren", random.nextInt(2));
+            booking.put("contactName", user.getFirstName() + " " + user.getLastName());
+            booking.put("contactEmail", user.getEmail());
+            booking.put("contactPhone", "+84900000000");
+
+            JsonNode created = send(recorder, "booking", post("/api/v1/bookings", accessToken, booking));
+            if (created != null && random.nextDouble() < checkoutRatio) {
+                send(recorder, "checkout", post("/api/v1/payments/stripe/checkout", accessToken,
+                        Map.of("bookingCode", created.path("code").asText())));
+            }
+        } finally {
+            send(recorder, "logout", request("/api/v1/auth/logout")
+                    .header("Authorization", "Bearer " + accessToken)
+                    .POST(HttpRequest.BodyPublishers.noBody()));
+        }
+    }
+
+    private String searchPath(ThreadLocalRandom random) {
+        StringBuilder path = new StringBuilder("/api/v1/tours?size=10&page=").append(random.nextInt(5))
+                .append("&sortBy=").append(SORTS[random.nextInt(SORTS.length)])
+                .append("&sortOrder=").append(random.nextBoolean() ? "asc" : "desc");
+
+        switch (random.nextInt(4)) {
+            case 0 -> path.append("&keyword=").append(encode(KEYWORDS[random.nextInt(KEYWORDS.length)]));
+            case 1 -> path.append("&destination=").append(encode(DESTINATIONS[random.nextInt(DESTINATIONS.length)]))
+                    .append("&maxPrice=").append(3_000_000 + random.nextInt(5) * 1_000_000);
+            case 2 -> path.append("&hasAvailableSlots=true&departureFrom=").append(LocalDate.now())
+                    .append("&departureTo=").append(LocalDate.now().plusMonths(2));
+            default -> {
+            }
+        }
+        return path.toString();
+    }
+
+    private JsonNode pickDeparture(JsonNode detail, ThreadLocalRandom random) {
+        List<JsonNode> open = new ArrayList<>();
+        detail.path("upcomingDepartures").forEach(departure -> {
+            if ("OPEN".equals(departure.path("status").asText()) && departure.path("availableSlots").asInt() >= 3) {
+                open.add(departure);
+            }
+        });
+        return open.isEmpty() ? null : open.get(random.nextInt(open.size()));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpRequest.Builder post(String path, String accessToken, Object body) throws IOException {
+        return request(path)
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+    }
+
+    /**
+     * Send and record; returns the parsed body for 2xx responses, otherwise null
+     */
+    private JsonNode send(LatencyRecorder recorder, String endpoint, HttpRequest.Builder request) throws IOException {
+        long startedAt = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - startedAt, TRANSPORT_FAILURE);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        recorder.record(endpoint, System.nanoTime() - startedAt, response.statusCode());
+
+        if (response.statusCode() / 100 != 2) {
+            if (response.statusCode() >= 500) {
+                logger.warn("{} returned {}: {}", endpoint, response.statusCode(), response.body());
+            }
+            return null;
+        }
+        return response.body().isBlank() ? MissingNode.getInstance() : objectMapper.readTree(response.body());
+    }
+
+    private List<User> loadUsers(int count) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE email LIKE 'synthetic-user-%' ORDER BY id LIMIT ?", Long.class, count);
+        assertThat(ids).as("synthetic users").isNotEmpty();
+
+        return ids.stream()
+                .map(id -> userRepository.findByIdWithRole(id).orElseThrow())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Issue and store a token pair the way a successful OAuth login does
+     */
+    private String login(User user) {
+        String tokenKey = jwtTokenProvider.generateTokenKey();
+        String accessToken = jwtTokenProvider.generateAccessToken(user, tokenKey);
+        String refreshToken = jwtTokenProvider.generateRefreshToken(user, tokenKey);
+
+        LocalDateTime now = LocalDateTime.now();
+        tokenRepository.save(Token.builder()
+                .tokenKey(tokenKey)
+                .familyKey(tokenKey)
+                .refreshTokenHash(jwtTokenProvider.hashToken(refreshToken))
+                .user(user)
+                .expiresAt(now.plusSeconds(jwtTokenProvider.getJwtExpiration()))
+                .refreshExpiresAt(now.plusSeconds(jwtTokenProvider.getRefreshExpiration()))
+                .build());
+
+        return accessToken;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,89 @@
+package sun.asterisk.booking_tour.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Collects per-endpoint latencies and status outcomes and renders the summary table
+ */
+class LatencyRecorder {
+
+    private final Map<String, EndpointStats> statsByEndpoint = new ConcurrentSkipListMap<>();
+
+    void record(String endpoint, long latencyNanos, int status) {
+        statsByEndpoint.computeIfAbsent(endpoint, key -> new EndpointStats()).add(latencyNanos, status);
+    }
+
+    long serverErrors() {
+        return statsByEndpoint.values().stream().mapToLong(stats -> stats.serverErrors).sum();
+    }
+
+    long requests() {
+        return statsByEndpoint.values().stream().mapToLong(stats -> stats.count).sum();
+    }
+
+    String report(double elapsedSeconds) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-10s %9s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "4xx", "5xx", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+
+        statsByEndpoint.forEach((endpoint, stats) -> {
+            long[] sorted = stats.sortedLatencies();
+            report.append(String.format("%-10s %9d %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint,
+                    stats.count,
+                    stats.count / elapsedSeconds,
+                    stats.clientErrors,
+                    stats.serverErrors,
+                    millis(Arrays.stream(sorted).average().orElse(0)),
+                    millis(percentile(sorted, 0.50)),
+                    millis(percentile(sorted, 0.90)),
+                    millis(percentile(sorted, 0.99)),
+                    millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0)));
+        });
+
+        report.append(String.format("total      %9d %9.1f over %.0fs%n",
+                requests(), requests() / elapsedSeconds, elapsedSeconds));
+        return report.toString();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static class EndpointStats {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long clientErrors;
+        private long serverErrors;
+
+        synchronized void add(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+
+            if (status >= 500) {
+                serverErrors++;
+            } else if (status >= 400) {
+                clientErrors++;
+            }
+        }
+
+        synchronized long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
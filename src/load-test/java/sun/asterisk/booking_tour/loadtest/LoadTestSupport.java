@@ -0,0 +1,72 @@
+package sun.asterisk.booking_tour.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+import com.stripe.Stripe;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+/**
+ * Base class for the load tests. The application gets an embedded PostgreSQL, an
+ * embedded Redis and a local Stripe stub, started once per JVM and stopped by a
+ * shutdown hook, so every load test class shares one cached application context and
+ * one synthetic seed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("load-test")
+abstract class LoadTestSupport {
+
+    private static EmbeddedPostgres postgres;
+    private static int redisPort;
+
+    @DynamicPropertySource
+    static synchronized void infrastructure(DynamicPropertyRegistry registry) throws IOException {
+        if (postgres == null) {
+            start();
+        }
+
+        // Same driver options as the application datasource, batched inserts included
+        String jdbcUrl = postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true";
+        registry.add("spring.datasource.url", () -> jdbcUrl);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("spring.data.redis.port", () -> redisPort);
+    }
+
+    private static void start() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+
+        redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+
+        StripeStubServer stripe = new StripeStubServer();
+        stripe.start();
+        Stripe.overrideApiBase(stripe.baseUrl());
+
+        EmbeddedPostgres startedPostgres = postgres;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                stripe.stop();
+                redis.stop();
+                startedPostgres.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package sun.asterisk.booking_tour.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal local stand-in for the Stripe API: answers checkout session creation with
+ * an open, unpaid session so PaymentService runs its normal path
+ */
+class StripeStubServer {
+
+    private final HttpServer server;
+
+    StripeStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/v1/checkout/sessions", this::createSession);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void createSession(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+
+        String id = "cs_test_" + UUID.randomUUID().toString().replace("-", "");
+        String body = "{"
+                + "\"id\":\"" + id + "\","
+                + "\"object\":\"checkout.session\","
+                + "\"created\":" + Instant.now().getEpochSecond() + ","
+                + "\"mode\":\"payment\","
+                + "\"status\":\"open\","
+                + "\"payment_status\":\"unpaid\","
+                + "\"url\":\"https://checkout.stripe.com/c/pay/" + id + "\""
+                + "}";
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
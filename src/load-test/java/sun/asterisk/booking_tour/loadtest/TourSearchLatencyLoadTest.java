@@ -0,0 +1,166 @@
+package sun.asterisk.booking_tour.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import sun.asterisk.booking_tour.config.SyntheticDataSeeder;
+import sun.asterisk.booking_tour.dto.common.PageResponse;
+import sun.asterisk.booking_tour.dto.tour.TourSearchRequest;
+import sun.asterisk.booking_tour.dto.tour.TourSearchResponse;
+import sun.asterisk.booking_tour.entity.Tour;
+import sun.asterisk.booking_tour.repository.TourRepository;
+import sun.asterisk.booking_tour.service.TourService;
+import sun.asterisk.booking_tour.service.TourStatsService;
+import sun.asterisk.booking_tour.specification.TourSpecification;
+
+/**
+ * Latency of the tour searches served through the tour_stats join (rating and popular
+ * sorts, minimum rating filter) as the catalogue grows. For each size in
+ * load.search.scales the synthetic seeder tops the tours up and the stats projection is
+ * rebuilt, and a tour is then added behind the rebuild's back: its stats row must come
+ * from the insert itself and it must still be listed. Every search then runs through
+ * TourService, so the count and the response mapping are included.
+ *
+ * Tuning: load.search.scales, load.search.warmup-iterations, load.search.iterations
+ */
+class TourSearchLatencyLoadTest extends LoadTestSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(TourSearchLatencyLoadTest.class);
+
+    private static final int OK = 200;
+
+    private final List<Long> scales = Arrays.stream(System.getProperty("load.search.scales", "10000,100000,1000000")
+                    .split(","))
+            .map(String::trim)
+            .map(Long::valueOf)
+            .toList();
+    private final int warmupIterations = Integer.getInteger("load.search.warmup-iterations", 50);
+    private final int iterations = Integer.getInteger("load.search.iterations", 200);
+
+    @Autowired
+    private SyntheticDataSeeder syntheticDataSeeder;
+
+    @Autowired
+    private TourStatsService tourStatsService;
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void statsJoinLatency() throws Exception {
+        Object configuredTours = ReflectionTestUtils.getField(syntheticDataSeeder, "tourCount");
+        StringBuilder report = new StringBuilder();
+        try {
+            for (long tours : scales) {
+                prepare(tours);
+                assertNewToursAreListed();
+
+                LatencyRecorder recorder = new LatencyRecorder();
+                double elapsedSeconds = measure(recorder, "rating", () -> search("rating", null, false));
+                elapsedSeconds += measure(recorder, "popular", () -> search("popular", null, false));
+                elapsedSeconds += measure(recorder, "minRating", () -> search("newest", 4, false));
+                elapsedSeconds += measure(recorder, "cursor", () -> search("rating", 4, true));
+
+                String scaleReport = recorder.report(elapsedSeconds);
+                logger.info("Tour search over the tour_stats join with {} synthetic tours\n{}", tours, scaleReport);
+                report.append("tours=").append(tours).append(System.lineSeparator()).append(scaleReport)
+                        .append(System.lineSeparator());
+            }
+        } finally {
+            ReflectionTestUtils.setField(syntheticDataSeeder, "tourCount", configuredTours);
+        }
+
+        Files.createDirectories(Path.of("target"));
+        Files.writeString(Path.of("target", "tour-search-latency-report.txt"), report);
+    }
+
+    private void prepare(long tours) {
+        ReflectionTestUtils.setField(syntheticDataSeeder, "tourCount", tours);
+        syntheticDataSeeder.seed();
+        tourStatsService.rebuildAll();
+        jdbcTemplate.execute("ANALYZE tours, tour_stats, tour_departures");
+    }
+
+    /**
+     * Rating and popular search inner join tour_stats, so a tour inserted after the last
+     * rebuild must get its row on insert and show up unrated and unliked
+     */
+    private void assertNewToursAreListed() {
+        Long unratedTourId = jdbcTemplate.queryForObject(
+                "INSERT INTO tours (id, name, title, slug, description, thumbnail_url, departure_location, "
+                        + "main_destination, itinerary, duration_days, duration_nights, price_adult, price_child, "
+                        + "discount_rate, creator_id, category_id, created_at, updated_at) "
+                        + "SELECT n.id, t.name, t.title, 'unrated-' || n.id, t.description, t.thumbnail_url, "
+                        + "t.departure_location, t.main_destination, t.itinerary, t.duration_days, t.duration_nights, "
+                        + "t.price_adult, t.price_child, t.discount_rate, t.creator_id, t.category_id, now(), now() "
+                        + "FROM tours t JOIN categories c ON c.id = t.category_id "
+                        + "CROSS JOIN (SELECT nextval('tours_seq') AS id) n "
+                        + "WHERE c.status = 'ACTIVE' ORDER BY t.id LIMIT 1 RETURNING id",
+                Long.class);
+        Long toursWithoutStats = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tours t WHERE NOT EXISTS (SELECT 1 FROM tour_stats s WHERE s.tour_id = t.id)",
+                Long.class);
+        assertThat(toursWithoutStats).as("tours without stats row").isZero();
+
+        for (String sortBy : List.of("rating", "popular")) {
+            TourSearchRequest request = TourSearchRequest.builder().sortBy(sortBy).build();
+            Specification<Tour> spec = TourSpecification.withSearchCriteria(request)
+                    .and((root, query, cb) -> cb.equal(root.get("id"), unratedTourId));
+            assertThat(tourRepository.findAll(spec)).as("tours sorted by " + sortBy).hasSize(1);
+        }
+    }
+
+    private double measure(LatencyRecorder recorder, String variant, Supplier<PageResponse<TourSearchResponse>> search) {
+        for (int i = 0; i < warmupIterations; i++) {
+            search.get();
+        }
+
+        long measureStartedAt = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long startedAt = System.nanoTime();
+            PageResponse<TourSearchResponse> page = search.get();
+            recorder.record(variant, System.nanoTime() - startedAt, OK);
+            assertThat(page.getContent()).as(variant + " results").isNotEmpty();
+        }
+        return (System.nanoTime() - measureStartedAt) / 1_000_000_000.0;
+    }
+
+    /**
+     * One search: a random one of the first pages, or with cursor paging the first page
+     * followed by the one after it
+     */
+    private PageResponse<TourSearchResponse> search(String sortBy, Integer minRating, boolean cursor) {
+        TourSearchRequest.TourSearchRequestBuilder request = TourSearchRequest.builder()
+                .sortBy(sortBy)
+                .sortOrder(ThreadLocalRandom.current().nextBoolean() ? "asc" : "desc")
+                .minRating(minRating)
+                .size(10);
+        if (!cursor) {
+            return tourService.searchTours(request.page(ThreadLocalRandom.current().nextInt(5)).build());
+        }
+
+        TourSearchRequest first = request.pagination("cursor").build();
+        String nextCursor = tourService.searchTours(first).getNextCursor();
+        return tourService.searchTours(request.pagination("cursor").cursor(nextCursor).build());
+    }
+}
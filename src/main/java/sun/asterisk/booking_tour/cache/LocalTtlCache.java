@@ -0,0 +1,86 @@
+package sun.asterisk.booking_tour.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small in-process cache: bounded by entry count with least-recently-used eviction,
+ * and every entry expires a fixed time after it was written, or earlier when written
+ * with its own deadline. Null values are never stored.
+ */
+public class LocalTtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public LocalTtlCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > LocalTtlCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Store a value that must not outlive {@code expiresAtMillis} (epoch millis)
+     */
+    public synchronized void put(K key, V value, long expiresAtMillis) {
+        if (value == null || maxSize <= 0) {
+            return;
+        }
+        long expiresAt = Math.min(System.currentTimeMillis() + ttlMillis, expiresAtMillis);
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * Return the cached value or load it. The loader runs outside the lock, so
+     * concurrent misses for the same key may both load.
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
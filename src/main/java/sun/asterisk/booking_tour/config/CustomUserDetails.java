@@ -9,14 +9,21 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import sun.asterisk.booking_tour.enums.UserStatus;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// Cached as JSON by UserPrincipalCacheService; the UserDetails accessors are derived
+@JsonIgnoreProperties(value = {"authorities", "password", "username", "accountNonExpired",
+        "accountNonLocked", "credentialsNonExpired", "enabled"}, ignoreUnknown = true)
 public class CustomUserDetails implements UserDetails {
 
     private Long userId;
@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import sun.asterisk.booking_tour.entity.*;
 import sun.asterisk.booking_tour.enums.*;
 import sun.asterisk.booking_tour.repository.*;
+import sun.asterisk.booking_tour.service.TourStatsService;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -26,6 +27,8 @@ public class DataSeeder {
             CategoryRepository categoryRepository,
             TourRepository tourRepository,
             TourDepartureRepository tourDepartureRepository,
+            TourStatsService tourStatsService,
+            SyntheticDataSeeder syntheticDataSeeder,
             PasswordEncoder passwordEncoder
     ) {
         return args -> {
@@ -46,6 +49,12 @@ public class DataSeeder {
             // Seed tour departures
             seedTourDepartures(tourDepartureRepository, tours);
 
+            // Bulk load-testing dataset, when seed.synthetic.enabled is set
+            syntheticDataSeeder.seed();
+
+            // Build tour stats projection
+            tourStatsService.rebuildAll();
+
             log.info("Data seeding completed successfully!");
         };
     }
@@ -127,6 +136,7 @@ public class DataSeeder {
             List<Category> categories
     ) {
         List<Tour> tours = new ArrayList<>();
+        List<Tour> newTours = new ArrayList<>();
 
         Object[][] tourData = {
             {"Tour Phú Quốc 3N2Đ", "Khám phá thiên đường biển đảo", "tour-phu-quoc-3n2d", 
@@ -171,19 +181,25 @@ public class DataSeeder {
                 tour.setCreator(creator);
                 tour.setCategory((Category) data[10]);
 
-                Tour saved = tourRepository.save(tour);
-                tours.add(saved);
+                newTours.add(tour);
                 log.info("Created tour: {}", data[0]);
             } else {
                 tours.add(tourRepository.findBySlug(slug).orElseThrow());
             }
         }
 
+        tours.addAll(tourRepository.saveAll(newTours));
         return tours;
     }
 
     private void seedTourDepartures(TourDepartureRepository tourDepartureRepository, List<Tour> tours) {
+        List<TourDeparture> departures = new ArrayList<>();
+
         for (Tour tour : tours) {
+            if (tourDepartureRepository.existsByTourId(tour.getId())) {
+                continue;
+            }
+
             LocalDate[] departureDates = {
                 LocalDate.now().plusDays(7),
                 LocalDate.now().plusDays(14),
@@ -199,10 +215,13 @@ public class DataSeeder {
                 departure.setAvailableSlots(25);
                 departure.setStatus(TourDepartureStatus.OPEN);
 
-                tourDepartureRepository.save(departure);
+                departures.add(departure);
             }
             
             log.info("Created {} departures for tour: {}", departureDates.length, tour.getName());
         }
+
+        // One transaction, so the inserts go out as JDBC batches
+        tourDepartureRepository.saveAll(departures);
     }
 }
@@ -8,6 +8,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,9 +17,9 @@ import lombok.RequiredArgsConstructor;
 import sun.asterisk.booking_tour.entity.User;
 import sun.asterisk.booking_tour.repository.UserRepository;
 import sun.asterisk.booking_tour.service.TokenBlacklistService;
+import sun.asterisk.booking_tour.service.UserPrincipalCacheService;
 
 import java.io.IOException;
-import java.util.Optional;
 
 @Configuration
 @RequiredArgsConstructor
@@ -29,6 +30,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider jwtTokenProvider;
     private final TokenBlacklistService tokenBlacklistService;
     private final UserRepository userRepository;
+    private final UserPrincipalCacheService userPrincipalCacheService;
 
     @Override
     protected void doFilterInternal(
@@ -46,12 +48,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             String token = authHeader.substring(7);
 
-            if (!jwtTokenProvider.validateToken(token)) {
+            // One signature check per token, reused until it expires. Refresh tokens are
+            // only good for /auth/refresh, never as a bearer token.
+            Claims claims = jwtTokenProvider.parseClaims(token);
+            if (claims == null || "refresh".equals(claims.get("type", String.class))) {
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            String tokenKey = jwtTokenProvider.getTokenKeyFromToken(token);
+            String tokenKey = claims.get("tokenKey", String.class);
             
             if (tokenBlacklistService.isBlacklisted(tokenKey)) {
                 logger.warn("Token has been revoked: {}", tokenKey);
@@ -59,29 +64,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
-            Long userId = jwtTokenProvider.getUserIdFromToken(token);
-            Optional<User> userOptional = userRepository.findByIdWithRole(userId);
-            
-            if (!userOptional.isPresent()) {
+            Long userId = claims.get("userId", Long.class);
+            CustomUserDetails userDetails = userPrincipalCacheService.get(userId, () ->
+                    userRepository.findByIdWithRole(userId)
+                            .map(this::toUserDetails)
+                            .orElse(null));
+
+            if (userDetails == null) {
                 logger.warn("User not found with ID: {}", userId);
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "User not found");
                 return;
             }
 
-            User user = userOptional.get();
-            CustomUserDetails userDetails = CustomUserDetails.builder()
-                    .userId(user.getId())
-                    .firstName(user.getFirstName())
-                    .lastName(user.getLastName())
-                    .email(user.getEmail())
-                    .phone(user.getPhone())
-                    .dateOfBirth(user.getDateOfBirth())
-                    .avatarUrl(user.getAvatarUrl())
-                    .isVerified(user.getIsVerified())
-                    .status(user.getStatus())
-                    .roleName(user.getRole() != null ? user.getRole().getName() : null)
-                    .build();
-
             UsernamePasswordAuthenticationToken authentication
                     = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
@@ -96,4 +90,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private CustomUserDetails toUserDetails(User user) {
+        return CustomUserDetails.builder()
+                .userId(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .phone(user.getPhone())
+                .dateOfBirth(user.getDateOfBirth())
+                .avatarUrl(user.getAvatarUrl())
+                .isVerified(user.getIsVerified())
+                .status(user.getStatus())
+                .roleName(user.getRole() != null ? user.getRole().getName() : null)
+                .build();
+    }
 }
@@ -1,40 +1,148 @@
 package sun.asterisk.booking_tour.config;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import sun.asterisk.booking_tour.cache.LocalTtlCache;
 import sun.asterisk.booking_tour.entity.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Issues and verifies JWTs.
+ *
+ * With {@code jwt.algorithm} HS256 every node signs and verifies with the shared
+ * {@code jwt.secret}. With ES256 or EdDSA tokens are signed with a private key from
+ * {@code jwt.key-dir} and carry its key id in the {@code kid} header; verification only
+ * needs the public keys, which are also served as a JWK set so other services can check
+ * tokens without any secret. The directory holds {@code <kid>.key} (PKCS#8 PEM) and
+ * {@code <kid>.pub} (X.509 PEM) files and is re-read on a schedule: the greatest kid that
+ * has both files signs, every public key verifies, and removing a public key retires
+ * it. Tokens issued under HS256 before the switch carry no kid; they are accepted with
+ * {@code jwt.secret} only when {@code jwt.legacy-hs256-cutover} names the moment of the
+ * switch, only if issued before it, and only until the cutover plus the refresh token
+ * lifetime, after which none of them can still be valid.
+ */
 @Component
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
-    @Value("${jwt.secret}")
+    // Minimum gap between directory reloads triggered by an unknown kid
+    private static final long ON_DEMAND_RELOAD_INTERVAL_MS = 5000;
+
+    @Value("${jwt.secret:}")
     private String jwtSecret;
 
+    @Value("${jwt.algorithm:HS256}")
+    private String algorithm;
+
+    @Value("${jwt.key-dir:}")
+    private String keyDir;
+
+    @Value("${jwt.legacy-hs256-cutover:}") // ISO-8601 instant
+    private String legacyCutover;
+
     @Value("${jwt.expiration}") // 1 hour
     private long jwtExpiration;
 
     @Value("${jwt.refresh-expiration}") // 7 days
     private long refreshExpiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // Shared HMAC secret; null when running asymmetric without legacy tokens
+    private SecretKey secretKey;
+    // Asymmetric only: kid-less tokens must be issued before legacyIssuedBefore and
+    // are rejected outright from legacyAcceptedUntil on
+    private Instant legacyIssuedBefore;
+    private Instant legacyAcceptedUntil;
+    // ES256 or EdDSA; null under HS256
+    private SignatureAlgorithm signatureAlgorithm;
+    private JwtParser jwtParser;
+
+    // Replaced as a whole on every reload
+    private volatile KeySet keySet;
+    private long lastReloadAt;
+
+    // Claims of tokens whose signature already checked out, keyed by token hash,
+    // each entry dropped at the token's own expiry
+    private LocalTtlCache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        verifiedTokens = new LocalTtlCache<>(verifiedCacheSize, Math.max(jwtExpiration, refreshExpiration));
+        if (jwtSecret != null && !jwtSecret.isBlank()) {
+            secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        }
+
+        if (isAsymmetric()) {
+            signatureAlgorithm = switch (algorithm.toUpperCase()) {
+                case "ES256" -> Jwts.SIG.ES256;
+                case "EDDSA" -> Jwts.SIG.EdDSA;
+                default -> throw new IllegalStateException("Unsupported jwt.algorithm: " + algorithm);
+            };
+            keySet = loadKeySet();
+            lastReloadAt = System.currentTimeMillis();
+            if (secretKey != null) {
+                if (legacyCutover == null || legacyCutover.isBlank()) {
+                    throw new IllegalStateException("jwt.legacy-hs256-cutover is required when jwt.secret is set with jwt.algorithm " + algorithm);
+                }
+                legacyIssuedBefore = Instant.parse(legacyCutover);
+                legacyAcceptedUntil = legacyIssuedBefore.plusMillis(refreshExpiration);
+                logger.info("Accepting HS256 tokens issued before {} until {}", legacyIssuedBefore, legacyAcceptedUntil);
+            }
+            logger.info("JWT signing with {} key id: {}, verification keys: {}", algorithm, keySet.signingKid(), keySet.verificationKeys().keySet());
+        } else if (secretKey == null) {
+            throw new IllegalStateException("jwt.secret is required when jwt.algorithm is HS256");
+        }
+
+        jwtParser = Jwts.parser()
+                .keyLocator(this::locateKey)
+                .build();
     }
 
     /**
@@ -51,13 +159,11 @@ public class JwtTokenProvider {
         claims.put("roleName", user.getRole() != null ? user.getRole().getName() : null);
         claims.put("tokenKey", tokenKey); // UUID key for token management
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .claims(claims)
                 .subject(user.getEmail())
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + jwtExpiration)));
     }
 
     /**
@@ -73,13 +179,11 @@ public class JwtTokenProvider {
         claims.put("type", "refresh");
         claims.put("tokenKey", tokenKey); // UUID key for token management
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .claims(claims)
                 .subject(user.getEmail())
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + refreshExpiration))
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + refreshExpiration)));
     }
 
     /**
@@ -91,55 +195,225 @@ public class JwtTokenProvider {
         return UUID.randomUUID().toString();
     }
 
+    /**
+     * Verify the token once and return its claims, or null when it is malformed,
+     * badly signed or expired. Repeat calls for the same token are served from memory
+     * until it expires.
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.error("Invalid JWT token: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Extract email from JWT token
      */
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        return verify(token).getSubject();
     }
 
     public String getTokenKeyFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("tokenKey", String.class);
+        return verify(token).get("tokenKey", String.class);
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("userId", Long.class);
+        return verify(token).get("userId", Long.class);
     }
 
     public String getRoleNameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("roleName", String.class);
+        return verify(token).get("roleName", String.class);
     }
 
     public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+
+    private Claims verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+
+        String cacheKey = hashToken(token);
+        Claims claims = verifiedTokens.get(cacheKey);
+        if (claims != null && !isExpired(claims)) {
+            return claims;
+        }
+
+        Jws<Claims> jws = jwtParser.parseSignedClaims(token);
+        claims = jws.getPayload();
+        if (isAsymmetric() && jws.getHeader().getKeyId() == null) {
+            Date issuedAt = claims.getIssuedAt();
+            if (issuedAt == null || !issuedAt.toInstant().isBefore(legacyIssuedBefore)) {
+                throw new JwtException("JWT without a key id issued after the HS256 cutover");
+            }
+        }
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(cacheKey, claims, claims.getExpiration().getTime());
+        }
+        return claims;
+    }
+
+    /**
+     * Public verification keys as a JWK set ({@code {"keys": [...]}}); empty under HS256
+     */
+    public Map<String, Object> getPublicJwks() {
+        List<Map<String, ?>> keys = new ArrayList<>();
+        KeySet current = keySet;
+        if (current != null) {
+            current.verificationKeys().forEach((kid, publicKey) -> keys.add(Jwks.builder()
+                    .key(publicKey)
+                    .id(kid)
+                    .algorithm(signatureAlgorithm.getId())
+                    .publicKeyUse("sig")
+                    .build()));
+        }
+        return Map.of("keys", keys);
+    }
+
+    /**
+     * Re-read the key directory. A failed reload keeps the current keys. When a key is
+     * retired, tokens it verified earlier are dropped from the verified-token cache too.
+     */
+    @Scheduled(fixedDelayString = "${jwt.key-reload-interval-ms:60000}")
+    public synchronized void reloadKeys() {
+        if (!isAsymmetric()) {
+            return;
+        }
+
+        lastReloadAt = System.currentTimeMillis();
+        KeySet previous = keySet;
+        KeySet loaded;
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
-            return false;
+            loaded = loadKeySet();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reload JWT keys from {}, keeping the current keys: {}", keyDir, e.getMessage());
+            return;
+        }
+
+        keySet = loaded;
+        if (!loaded.verificationKeys().keySet().containsAll(previous.verificationKeys().keySet())) {
+            verifiedTokens.invalidateAll();
+        }
+        if (!loaded.signingKid().equals(previous.signingKid()) || !loaded.verificationKeys().keySet().equals(previous.verificationKeys().keySet())) {
+            logger.info("JWT keys reloaded. signing key id: {}, verification keys: {}", loaded.signingKid(), loaded.verificationKeys().keySet());
+        }
+    }
+
+    private String sign(JwtBuilder builder) {
+        if (!isAsymmetric()) {
+            return builder.signWith(secretKey).compact();
+        }
+
+        KeySet current = keySet;
+        return builder.header().keyId(current.signingKid()).and()
+                .signWith(current.signingKey(), signatureAlgorithm)
+                .compact();
+    }
+
+    /**
+     * Verification key for a token: its kid in the keyset, or the shared secret for tokens
+     * without one while those are still accepted. An unknown kid may be a key another node
+     * just started signing with, so the directory is re-read once before the token is
+     * rejected.
+     */
+    private Key locateKey(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        if (kid == null) {
+            if (secretKey == null || (legacyAcceptedUntil != null && !Instant.now().isBefore(legacyAcceptedUntil))) {
+                throw new JwtException("JWT has no key id");
+            }
+            return secretKey;
+        }
+
+        KeySet current = keySet;
+        if (current == null) {
+            throw new JwtException("Unknown JWT key id: " + kid);
+        }
+
+        PublicKey publicKey = current.verificationKeys().get(kid);
+        if (publicKey == null) {
+            synchronized (this) {
+                if (System.currentTimeMillis() - lastReloadAt >= ON_DEMAND_RELOAD_INTERVAL_MS) {
+                    reloadKeys();
+                }
+            }
+            publicKey = keySet.verificationKeys().get(kid);
+        }
+        if (publicKey == null) {
+            throw new JwtException("Unknown JWT key id: " + kid);
+        }
+        return publicKey;
+    }
+
+    private boolean isAsymmetric() {
+        return !"HS256".equalsIgnoreCase(algorithm);
+    }
+
+    private KeySet loadKeySet() {
+        String keyAlgorithm = signatureAlgorithm == Jwts.SIG.ES256 ? "EC" : "EdDSA";
+        if (keyDir == null || keyDir.isBlank()) {
+            throw new IllegalStateException("jwt.key-dir is required when jwt.algorithm is " + algorithm);
+        }
+
+        Map<String, PublicKey> publicKeys = new TreeMap<>();
+        TreeMap<String, PrivateKey> privateKeys = new TreeMap<>();
+        try (Stream<Path> files = Files.list(Paths.get(keyDir))) {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyAlgorithm);
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".pub")) {
+                    publicKeys.put(kidOf(name), keyFactory.generatePublic(new X509EncodedKeySpec(readPem(file))));
+                } else if (name.endsWith(".key")) {
+                    privateKeys.put(kidOf(name), keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readPem(file))));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read JWT key directory " + keyDir, e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT key in " + keyDir + ": " + e.getMessage(), e);
+        }
+
+        // Latest kid that every node can verify; kids are meant to sort by age, e.g. dates
+        String signingKid = privateKeys.descendingKeySet().stream()
+                .filter(publicKeys::containsKey)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No <kid>.key with a matching <kid>.pub in " + keyDir));
+
+        return new KeySet(signingKid, privateKeys.get(signingKid), Map.copyOf(publicKeys));
+    }
+
+    private static String kidOf(String fileName) {
+        return fileName.substring(0, fileName.lastIndexOf('.'));
+    }
+
+    private static byte[] readPem(Path file) throws IOException {
+        String base64 = Files.readString(file)
+                .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private record KeySet(String signingKid, PrivateKey signingKey, Map<String, PublicKey> verificationKeys) {
+    }
+
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().getTime() <= System.currentTimeMillis();
+    }
+
+    /**
+     * SHA-256 of the token, base64url encoded. Used wherever a token has to be kept
+     * or compared without holding the token itself.
+     */
+    public String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
@@ -0,0 +1,241 @@
+package sun.asterisk.booking_tour.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates a large synthetic dataset (users, tours, departures, likes, reviews) for
+ * reproducing production query plans locally. Off by default.
+ *
+ * Rows are produced server-side with INSERT ... SELECT over generate_series, one chunk
+ * per statement and auto-committed, so nothing is materialized in the JVM and an
+ * interrupted run can be restarted. Synthetic rows are recognizable by their slug, email
+ * or review title, which is what makes re-runs skip the work already done.
+ *
+ * Ids come from blocks reserved on the entity sequences, so run it against a database
+ * that no other instance is writing to.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDataSeeder {
+
+    private static final String USER_EMAIL_PREFIX = "synthetic-user-";
+    private static final String USER_EMAIL_DOMAIN = "@example.com";
+    private static final String TOUR_SLUG_PREFIX = "synthetic-tour-";
+    private static final String REVIEW_TITLE_PREFIX = "Synthetic review #";
+
+    private static final String DESTINATIONS = "ARRAY['Phú Quốc', 'Sapa', 'Nha Trang', 'Đà Lạt', 'Hạ Long', "
+            + "'Huế', 'Côn Đảo', 'Mai Châu', 'Mù Cang Chải', 'Phan Thiết', 'Hội An', 'Hà Giang']";
+    private static final String DEPARTURE_LOCATIONS = "ARRAY['Hà Nội', 'TP.HCM', 'Đà Nẵng']";
+
+    // Skewed ordinal in 1..n: a deterministic hash of g, cubed, so a few tours
+    // collect most likes and reviews the way popular tours do in production
+    private static final String SKEWED_TOUR = "1 + floor(? * power(((g * 2654435761) % 4294967296) / 4294967296.0, 3))::bigint";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${seed.synthetic.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seed.synthetic.users:100000}")
+    private long userCount;
+
+    @Value("${seed.synthetic.tours:1000000}")
+    private long tourCount;
+
+    @Value("${seed.synthetic.departures-per-tour:20}")
+    private int departuresPerTour;
+
+    @Value("${seed.synthetic.likes:50000000}")
+    private long likeCount;
+
+    @Value("${seed.synthetic.reviews:50000000}")
+    private long reviewCount;
+
+    @Value("${seed.synthetic.chunk-size:50000}")
+    private long chunkSize;
+
+    public void seed() {
+        if (!enabled) {
+            return;
+        }
+
+        log.info("Starting synthetic data seeding. users={}, tours={}, departuresPerTour={}, likes={}, reviews={}",
+                userCount, tourCount, departuresPerTour, likeCount, reviewCount);
+        long startedAt = System.currentTimeMillis();
+
+        seedUsers();
+        seedTours();
+        seedDepartures();
+        seedLikes();
+        seedReviews();
+
+        // Fresh statistics, otherwise the planner keeps costing these tables as empty
+        jdbcTemplate.execute("ANALYZE users, tours, tour_departures, likes, reviews");
+
+        log.info("Synthetic data seeding completed in {}s", (System.currentTimeMillis() - startedAt) / 1000);
+    }
+
+    private void seedUsers() {
+        String password = passwordEncoder.encode("password123");
+        long existing = countExisting("SELECT COUNT(*) FROM users WHERE email LIKE ?", USER_EMAIL_PREFIX + "%");
+
+        String sql = "INSERT INTO users (id, first_name, last_name, email, password, is_verified, status, role_id, "
+                + "created_at, updated_at) "
+                + "SELECT ? + g, 'Synthetic', 'User ' || g, ? || g || ?, ?, true, 'ACTIVE', "
+                + "(SELECT id FROM roles WHERE name = 'USER'), now(), now() "
+                + "FROM generate_series(?::bigint, ?::bigint) g "
+                + "ON CONFLICT DO NOTHING";
+
+        runChunks("users", existing, userCount, (from, to) -> jdbcTemplate.update(sql,
+                reserveIds("users_seq", to - from + 1) - from + 1,
+                USER_EMAIL_PREFIX, USER_EMAIL_DOMAIN, password, from, to));
+    }
+
+    private void seedTours() {
+        long existing = countExisting("SELECT COUNT(*) FROM tours WHERE slug LIKE ?", TOUR_SLUG_PREFIX + "%");
+
+        String sql = "INSERT INTO tours (id, name, title, slug, description, thumbnail_url, departure_location, "
+                + "main_destination, itinerary, duration_days, duration_nights, price_adult, price_child, "
+                + "discount_rate, creator_id, category_id, created_at, updated_at) "
+                + "SELECT ? + g, 'Tour ' || s.destination || ' ' || s.days || 'N' || (s.days - 1) || 'Đ #' || g, "
+                + "'Khám phá ' || s.destination, ? || g, "
+                + "'Tour ' || s.destination || ' khởi hành từ ' || s.origin || '. Chương trình tour bao gồm: di chuyển, "
+                + "ăn uống, khách sạn, hướng dẫn viên chuyên nghiệp.', "
+                + "'https://example.com/tours/' || ? || g || '.jpg', s.origin, s.destination, "
+                + "'Ngày 1: Khởi hành...\nNgày 2: Tham quan...\nNgày 3: Về...', s.days, s.days - 1, "
+                + "1000000 + (g % 90) * 100000, 700000 + (g % 90) * 70000, (g % 6) * 5, "
+                + "(SELECT id FROM users WHERE email = 'admin@example.com'), "
+                + "c.ids[1 + g % array_length(c.ids, 1)], now() - (g % 1000) * interval '1 hour', now() "
+                + "FROM generate_series(?::bigint, ?::bigint) g "
+                + "CROSS JOIN (SELECT array_agg(id ORDER BY id) AS ids FROM categories) c "
+                + "CROSS JOIN LATERAL (SELECT (" + DESTINATIONS + ")[1 + g % 12] AS destination, "
+                + "(" + DEPARTURE_LOCATIONS + ")[1 + g % 3] AS origin, (2 + g % 4)::int AS days) s "
+                + "ON CONFLICT DO NOTHING";
+
+        runChunks("tours", existing, tourCount, (from, to) -> jdbcTemplate.update(sql,
+                reserveIds("tours_seq", to - from + 1) - from + 1,
+                TOUR_SLUG_PREFIX, TOUR_SLUG_PREFIX, from, to));
+    }
+
+    /**
+     * Departures spread from a few months back to a few months ahead, one a week per
+     * tour, only for synthetic tours that have none yet
+     */
+    private void seedDepartures() {
+        long toursPerChunk = Math.max(1, chunkSize / departuresPerTour);
+        long half = departuresPerTour / 2;
+
+        String sql = "INSERT INTO tour_departures (id, tour_id, departure_date, return_date, total_slots, "
+                + "available_slots, status, created_at, updated_at) "
+                + "SELECT ? + row_number() OVER (), t.id, x.departure_date, "
+                + "x.departure_date + (t.duration_days - 1), 30, "
+                + "CASE WHEN x.departure_date < current_date OR (t.id + d) % 10 = 0 THEN 0 "
+                + "ELSE 5 + ((t.id * d) % 26)::int END, "
+                + "CASE WHEN x.departure_date < current_date THEN 'CLOSED' "
+                + "WHEN (t.id + d) % 10 = 0 THEN 'FULL' ELSE 'OPEN' END, now(), now() "
+                + "FROM generate_series(?::bigint, ?::bigint) g "
+                + "JOIN tours t ON t.slug = ? || g "
+                + "CROSS JOIN generate_series(1, ?) d "
+                + "CROSS JOIN LATERAL (SELECT current_date + ((d - ?) * 7 + (g % 7))::int AS departure_date) x "
+                + "WHERE NOT EXISTS (SELECT 1 FROM tour_departures td WHERE td.tour_id = t.id)";
+
+        long rows = 0;
+        long startedAt = System.currentTimeMillis();
+        for (long from = 1; from <= tourCount; from += toursPerChunk) {
+            long to = Math.min(from + toursPerChunk - 1, tourCount);
+            rows += jdbcTemplate.update(sql,
+                    reserveIds("tour_departures_seq", (to - from + 1) * departuresPerTour),
+                    from, to, TOUR_SLUG_PREFIX, departuresPerTour, half);
+        }
+        log.info("Seeded synthetic tour_departures. inserted={}, took={}s",
+                rows, (System.currentTimeMillis() - startedAt) / 1000);
+    }
+
+    /**
+     * Likes are unique per (user, tour), so collisions from the skewed tour pick are
+     * dropped and the final count can land slightly under the target
+     */
+    private void seedLikes() {
+        long existing = countExisting("SELECT COUNT(*) FROM likes l JOIN users u ON u.id = l.user_id "
+                + "WHERE u.email LIKE ?", USER_EMAIL_PREFIX + "%");
+
+        String sql = "INSERT INTO likes (id, user_id, tour_id, created_at, updated_at) "
+                + "SELECT ? + row_number() OVER (), u.id, t.id, now(), now() "
+                + "FROM generate_series(?::bigint, ?::bigint) g "
+                + "JOIN users u ON u.email = ? || (1 + g % ?) || ? "
+                + "JOIN tours t ON t.slug = ? || (" + SKEWED_TOUR + ") "
+                + "ON CONFLICT DO NOTHING";
+
+        runChunks("likes", existing, likeCount, (from, to) -> jdbcTemplate.update(sql,
+                reserveIds("likes_seq", to - from + 1), from, to,
+                USER_EMAIL_PREFIX, userCount, USER_EMAIL_DOMAIN, TOUR_SLUG_PREFIX, tourCount));
+    }
+
+    private void seedReviews() {
+        long existing = countExisting("SELECT COUNT(*) FROM reviews WHERE title LIKE ?", REVIEW_TITLE_PREFIX + "%");
+
+        String sql = "INSERT INTO reviews (id, user_id, tour_id, rating, title, content, status, created_at, updated_at) "
+                + "SELECT ? + row_number() OVER (), u.id, t.id, "
+                + "CASE WHEN g % 10 < 5 THEN 5 WHEN g % 10 < 8 THEN 4 WHEN g % 10 < 9 THEN 3 "
+                + "ELSE 1 + (g / 10) % 2 END, "
+                + "? || g, 'Chuyến đi ' || t.main_destination || ' rất đáng nhớ, hướng dẫn viên nhiệt tình.', "
+                + "CASE WHEN g % 20 = 0 THEN 'PENDING' WHEN g % 50 = 1 THEN 'REJECTED' ELSE 'APPROVED' END, "
+                + "now() - (g % 8760) * interval '1 hour', now() "
+                + "FROM generate_series(?::bigint, ?::bigint) g "
+                + "JOIN users u ON u.email = ? || (1 + (g * 7) % ?) || ? "
+                + "JOIN tours t ON t.slug = ? || (" + SKEWED_TOUR + ")";
+
+        runChunks("reviews", existing, reviewCount, (from, to) -> jdbcTemplate.update(sql,
+                reserveIds("reviews_seq", to - from + 1), REVIEW_TITLE_PREFIX, from, to,
+                USER_EMAIL_PREFIX, userCount, USER_EMAIL_DOMAIN, TOUR_SLUG_PREFIX, tourCount));
+    }
+
+    /**
+     * Insert ordinals {@code existing + 1 .. target} in chunks, one statement each
+     */
+    private void runChunks(String table, long existing, long target, ChunkWriter writer) {
+        if (existing >= target) {
+            log.info("Synthetic {} already seeded. existing={}", table, existing);
+            return;
+        }
+
+        long rows = 0;
+        long startedAt = System.currentTimeMillis();
+        for (long from = existing + 1; from <= target; from += chunkSize) {
+            long to = Math.min(from + chunkSize - 1, target);
+            rows += writer.write(from, to);
+        }
+        log.info("Seeded synthetic {}. inserted={}, took={}s",
+                table, rows, (System.currentTimeMillis() - startedAt) / 1000);
+    }
+
+    private long countExisting(String sql, String pattern) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, pattern);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Reserve {@code count} ids and return the value just below them. nextval hands out
+     * the block ending at v; moving the sequence to v + count keeps every pooled block
+     * Hibernate allocates afterwards above v + count.
+     */
+    private long reserveIds(String sequence, long count) {
+        Long base = jdbcTemplate.queryForObject(
+                "SELECT setval(?::regclass, nextval(?::regclass) + ?) - ?",
+                Long.class, sequence, sequence, count, count);
+        return base != null ? base : 0;
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        int write(long from, long to);
+    }
+}
@@ -0,0 +1,110 @@
+package sun.asterisk.booking_tour.config;
+
+import java.util.List;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.ReturnableType;
+import org.hibernate.query.sqm.function.AbstractSqmSelfRenderingFunctionDescriptor;
+import org.hibernate.query.sqm.produce.function.StandardArgumentsValidators;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
+import org.hibernate.sql.ast.tree.expression.Expression;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * PostgreSQL full-text search over tours.
+ *
+ * The tours.search_vector column is generated from name, title, main destination and
+ * description with Vietnamese diacritics folded away, so "Phu Quoc" matches "Phú Quốc".
+ * Folding uses the built-in translate() because generated columns require immutable
+ * expressions and unaccent() is neither immutable nor available without the extension.
+ * The column and its GIN index are created by the V3 migration in db/migration.
+ *
+ * The column is not mapped on Tour, so loading tours never reads the vector. Both
+ * functions take the tour id path instead and render search_vector of the same table
+ * alias, which keeps this class the only place that references the column.
+ */
+public class TourSearchFunctions implements FunctionContributor {
+
+    public static final String MATCH_FUNCTION = "tour_search_match";
+    public static final String RANK_FUNCTION = "tour_search_rank";
+
+    private static final String SEARCH_VECTOR_COLUMN = "search_vector";
+
+    // Must match the folding in the V3 migration's generated column
+    private static final String FOLD_FROM =
+            "àáạảãâầấậẩẫăằắặẳẵèéẹẻẽêềếệểễìíịỉĩòóọỏõôồốộổỗơờớợởỡùúụủũưừứựửữỳýỵỷỹđ";
+    private static final String FOLD_TO =
+            "aaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyyd";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration()
+                .getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.BOOLEAN);
+        BasicType<Double> doubleType = functionContributions.getTypeConfiguration()
+                .getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.DOUBLE);
+
+        // tour_search_match(tour.id, keyword)
+        functionContributions.getFunctionRegistry()
+                .register(MATCH_FUNCTION, new SearchVectorFunction(MATCH_FUNCTION, "(", " @@ ", ")", booleanType));
+
+        // tour_search_rank(tour.id, keyword)
+        functionContributions.getFunctionRegistry()
+                .register(RANK_FUNCTION, new SearchVectorFunction(RANK_FUNCTION, "ts_rank_cd(", ", ", ")", doubleType));
+    }
+
+    /**
+     * Renders {@code <prefix>alias.search_vector<operator>websearch_to_tsquery(folded keyword)<suffix>}
+     * where alias is the table alias of the tour id passed as the first argument
+     */
+    private static final class SearchVectorFunction extends AbstractSqmSelfRenderingFunctionDescriptor {
+
+        private final String prefix;
+        private final String operator;
+        private final String suffix;
+
+        private SearchVectorFunction(String name, String prefix, String operator, String suffix, BasicType<?> type) {
+            super(
+                    name,
+                    StandardArgumentsValidators.exactly(2),
+                    StandardFunctionReturnTypeResolvers.invariant(type),
+                    null
+            );
+            this.prefix = prefix;
+            this.operator = operator;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public void render(
+                SqlAppender sqlAppender,
+                List<? extends SqlAstNode> arguments,
+                ReturnableType<?> returnType,
+                SqlAstTranslator<?> walker
+        ) {
+            ColumnReference tourId = ((Expression) arguments.get(0)).getColumnReference();
+            if (tourId == null) {
+                throw new IllegalArgumentException(getName() + " expects the tour id path as its first argument");
+            }
+
+            sqlAppender.appendSql(prefix);
+            if (tourId.getQualifier() != null) {
+                sqlAppender.appendSql(tourId.getQualifier());
+                sqlAppender.appendSql('.');
+            }
+            sqlAppender.appendSql(SEARCH_VECTOR_COLUMN);
+            sqlAppender.appendSql(operator);
+            sqlAppender.appendSql("websearch_to_tsquery('simple', translate(lower(");
+            arguments.get(1).accept(walker);
+            sqlAppender.appendSql("), '" + FOLD_FROM + "', '" + FOLD_TO + "'))");
+            sqlAppender.appendSql(suffix);
+        }
+    }
+}
@@ -1,14 +1,65 @@
 package sun.asterisk.booking_tour.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * One pooled HTTP client for outbound calls (OAuth providers). Connections are kept alive
+ * and reused across requests, HTTP/2 is negotiated over TLS where the provider offers it,
+ * and every call is bounded by connect, pool-acquire and response timeouts.
+ */
 @Configuration
 public class WebClientConfig {
 
+    @Value("${http-client.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${http-client.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${http-client.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${http-client.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${http-client.response-timeout-ms:10000}")
+    private long responseTimeoutMs;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider httpConnectionProvider() {
+        return ConnectionProvider.builder("outbound")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .evictInBackground(Duration.ofMillis(maxIdleTimeMs))
+                .build();
+    }
+
+    /**
+     * Built from a clone of Boot's prototype builder, so its codecs and customizers still
+     * apply and other injections of WebClient.Builder stay unaffected by this connector.
+     */
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public WebClient webClient(WebClient.Builder webClientBuilder, ConnectionProvider httpConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(httpConnectionProvider)
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .compress(true);
+
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
     }
 }
@@ -2,9 +2,11 @@ package sun.asterisk.booking_tour.controller.client;
 
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -19,11 +21,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
 import sun.asterisk.booking_tour.config.CommonApiResponses;
+import sun.asterisk.booking_tour.config.JwtTokenProvider;
 import sun.asterisk.booking_tour.dto.auth.AuthResponse;
 import sun.asterisk.booking_tour.dto.auth.FacebookLoginRequest;
 import sun.asterisk.booking_tour.dto.auth.GoogleLoginRequest;
 import sun.asterisk.booking_tour.dto.auth.LogoutResponse;
+import sun.asterisk.booking_tour.dto.auth.RefreshTokenRequest;
 import sun.asterisk.booking_tour.dto.auth.TwitterLoginRequest;
 import sun.asterisk.booking_tour.service.AuthService;
 
@@ -32,9 +37,12 @@ import sun.asterisk.booking_tour.service.AuthService;
 @RequiredArgsConstructor
 @Validated
 @Tag(name = "Authentication", description = "API endpoints for OAuth authentication (Google, Facebook, Twitter)")
+// OAuth logins return a Mono: the request thread is released while the provider calls are
+// in flight and the response is written once the login completes
 public class AuthController {
 
     private final AuthService authService;
+    private final JwtTokenProvider jwtTokenProvider;
 
     @Operation(
         summary = "Login with Google",
@@ -53,11 +61,11 @@ public class AuthController {
         )
     })
     @PostMapping("/google/login")
-    public ResponseEntity<AuthResponse> loginWithGoogle(
+    public Mono<ResponseEntity<AuthResponse>> loginWithGoogle(
             @Valid @RequestBody GoogleLoginRequest request) {
         
-        AuthResponse response = authService.loginWithGoogle(request.getCode());
-        return ResponseEntity.ok(response);
+        return authService.loginWithGoogle(request.getCode())
+                .map(ResponseEntity::ok);
     }
 
     @Operation(
@@ -77,11 +85,11 @@ public class AuthController {
         )
     })
     @PostMapping("/facebook/login")
-    public ResponseEntity<AuthResponse> loginWithFacebook(
+    public Mono<ResponseEntity<AuthResponse>> loginWithFacebook(
             @Valid @RequestBody FacebookLoginRequest request) {
         
-        AuthResponse response = authService.loginWithFacebook(request.getCode());
-        return ResponseEntity.ok(response);
+        return authService.loginWithFacebook(request.getCode())
+                .map(ResponseEntity::ok);
     }
 
     @Operation(
@@ -101,13 +109,49 @@ public class AuthController {
         )
     })
     @PostMapping("/twitter/login")
-    public ResponseEntity<AuthResponse> loginWithTwitter(
+    public Mono<ResponseEntity<AuthResponse>> loginWithTwitter(
             @Valid @RequestBody TwitterLoginRequest request) {
         
-        AuthResponse response = authService.loginWithTwitter(request.getCode());
+        return authService.loginWithTwitter(request.getCode())
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+        summary = "Refresh tokens",
+        description = "Exchange a refresh token for a new access and refresh token pair. Each refresh token can be used only once; the response carries its replacement. Presenting a refresh token that was already used revokes every token issued from the same login, and the user has to log in again."
+    )
+    @CommonApiResponses.BadRequest
+    @CommonApiResponses.InternalServerError
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully refreshed tokens",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AuthResponse.class)
+            )
+        )
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(
+            @Valid @RequestBody RefreshTokenRequest request) {
+
+        AuthResponse response = authService.refresh(request.getRefreshToken());
         return ResponseEntity.ok(response);
     }
 
+    @Operation(
+        summary = "JWT verification keys",
+        description = "Public keys that verify access and refresh tokens, as a JWK set. Each token names its key in the kid header. Other services can verify tokens with these keys alone. The set is empty when tokens are signed with a shared HMAC secret."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Current verification keys")
+    })
+    @GetMapping("/jwks")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok(jwtTokenProvider.getPublicJwks());
+    }
+
     @Operation(
         summary = "Logout",
         description = "Logout the current user by revoking the access token. The token key from the JWT payload will be used to revoke both access and refresh tokens from the database. This ensures that the tokens cannot be used again."
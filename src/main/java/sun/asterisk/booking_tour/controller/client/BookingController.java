@@ -1,6 +1,7 @@
 package sun.asterisk.booking_tour.controller.client;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,14 +10,20 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import sun.asterisk.booking_tour.config.CommonApiResponses;
+import sun.asterisk.booking_tour.config.CustomUserDetails;
+import sun.asterisk.booking_tour.dto.booking.CreateBookingBatchRequest;
+import sun.asterisk.booking_tour.dto.booking.CreateBookingBatchResponse;
 import sun.asterisk.booking_tour.dto.booking.CreateBookingRequest;
 import sun.asterisk.booking_tour.dto.booking.CreateBookingResponse;
 import sun.asterisk.booking_tour.service.BookingService;
+import sun.asterisk.booking_tour.service.IdempotencyService;
 
 @RestController
 @RequestMapping("/api/v1/bookings")
@@ -24,7 +31,10 @@ import sun.asterisk.booking_tour.service.BookingService;
 @Tag(name = "Booking", description = "API endpoints for booking tours")
 public class BookingController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
 
     @Operation(summary = "Create booking", description = "Create a booking for a specific tour departure")
     @CommonApiResponses.BadRequest
@@ -40,8 +50,53 @@ public class BookingController {
         )
     })
     @PostMapping("")
-    public ResponseEntity<CreateBookingResponse> createBooking(@Valid @RequestBody CreateBookingRequest request) {
-        CreateBookingResponse response = bookingService.createBooking(request);
+    public ResponseEntity<CreateBookingResponse> createBooking(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @Parameter(description = "Client-generated key; retries with the same key replay the first response")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateBookingRequest request
+    ) {
+        CreateBookingResponse response = idempotencyService.execute(
+                "booking",
+                userDetails.getUserId(),
+                idempotencyKey,
+                request,
+                CreateBookingResponse.class,
+                () -> bookingService.createBooking(request)
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Create bookings in batch",
+            description = "Create up to 100 bookings in one transaction. Each line is reported separately; lines without enough seats do not fail the others."
+    )
+    @CommonApiResponses.BadRequest
+    @ApiResponses(value = {
+        @ApiResponse(
+                responseCode = "200",
+                description = "Batch processed, see per-line results",
+                content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = CreateBookingBatchResponse.class)
+                )
+        )
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<CreateBookingBatchResponse> createBookings(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @Parameter(description = "Client-generated key; retries with the same key replay the first response")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateBookingBatchRequest request
+    ) {
+        CreateBookingBatchResponse response = idempotencyService.execute(
+                "booking-batch",
+                userDetails.getUserId(),
+                idempotencyKey,
+                request,
+                CreateBookingBatchResponse.class,
+                () -> bookingService.createBookings(request)
+        );
         return ResponseEntity.ok(response);
     }
 }
@@ -1,16 +1,20 @@
 package sun.asterisk.booking_tour.controller.client;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 
+import sun.asterisk.booking_tour.config.CustomUserDetails;
 import sun.asterisk.booking_tour.dto.payment.StripeCheckoutResponse;
 import sun.asterisk.booking_tour.dto.payment.StripePaymentStatusResponse;
 import sun.asterisk.booking_tour.dto.payment.StripeCheckoutRequest;
+import sun.asterisk.booking_tour.service.IdempotencyService;
 import sun.asterisk.booking_tour.service.PaymentService;
 import jakarta.validation.Valid;
 
@@ -18,15 +22,29 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/v1/payments")
 public class PaymentController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyService idempotencyService) {
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping("/stripe/checkout")
-    public ResponseEntity<StripeCheckoutResponse> createStripeCheckout(@Valid @RequestBody StripeCheckoutRequest request) {
-        StripeCheckoutResponse response = paymentService.createStripeCheckout(request.getBookingCode());
+    public ResponseEntity<StripeCheckoutResponse> createStripeCheckout(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody StripeCheckoutRequest request) {
+        StripeCheckoutResponse response = idempotencyService.execute(
+                "stripe-checkout",
+                userDetails.getUserId(),
+                idempotencyKey,
+                request,
+                StripeCheckoutResponse.class,
+                () -> paymentService.createStripeCheckout(request.getBookingCode())
+        );
         return ResponseEntity.ok(response);
     }
 
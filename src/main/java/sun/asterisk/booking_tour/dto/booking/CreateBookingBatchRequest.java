@@ -0,0 +1,27 @@
+package sun.asterisk.booking_tour.dto.booking;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Create several bookings in one request")
+public class CreateBookingBatchRequest {
+
+    @NotEmpty
+    @Size(max = 100)
+    @Valid
+    private List<CreateBookingRequest> bookings;
+}
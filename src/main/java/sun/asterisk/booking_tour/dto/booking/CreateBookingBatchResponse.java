@@ -0,0 +1,56 @@
+package sun.asterisk.booking_tour.dto.booking;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import sun.asterisk.booking_tour.enums.BookingStatus;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Per-line results of a batch booking request")
+public class CreateBookingBatchResponse {
+
+    @Schema(description = "Number of bookings created", example = "48")
+    private Integer succeeded;
+
+    @Schema(description = "Number of lines rejected", example = "2")
+    private Integer failed;
+
+    @Schema(description = "One result per request line, in request order")
+    private List<LineResult> results;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @Schema(description = "Result of one booking line")
+    public static class LineResult {
+        @Schema(description = "Index of the line in the request", example = "0")
+        private Integer index;
+
+        @Schema(description = "Whether the booking was created", example = "true")
+        private Boolean success;
+
+        @Schema(description = "Booking code when created", example = "BK0K3FZ9X2A1Q")
+        private String code;
+
+        @Schema(description = "Booking status when created", example = "PENDING")
+        private BookingStatus status;
+
+        @Schema(description = "Final total when created", example = "3150000")
+        private BigDecimal finalTotal;
+
+        @Schema(description = "Reason the line was rejected", example = "Not enough available slots")
+        private String error;
+    }
+}
@@ -20,16 +20,16 @@ public class PageResponse<T> {
     @Schema(description = "List of items in current page")
     private List<T> content;
 
-    @Schema(description = "Current page number (0-based)", example = "0")
+    @Schema(description = "Current page number (0-based), null in cursor pagination mode", example = "0")
     private Integer pageNumber;
 
     @Schema(description = "Page size", example = "10")
     private Integer pageSize;
 
-    @Schema(description = "Total elements", example = "100")
+    @Schema(description = "Total elements, null in cursor pagination mode", example = "100")
     private Long totalElements;
 
-    @Schema(description = "Total pages", example = "10")
+    @Schema(description = "Total pages, null in cursor pagination mode", example = "10")
     private Integer totalPages;
 
     @Schema(description = "Is first page", example = "true")
@@ -43,4 +43,10 @@ public class PageResponse<T> {
 
     @Schema(description = "Has previous page", example = "false")
     private Boolean hasPrevious;
+
+    @Schema(description = "True when totalElements is a lower bound, e.g. 1000+ with estimated counts", example = "false")
+    private Boolean totalApproximate;
+
+    @Schema(description = "Cursor for the next page in cursor pagination mode, null on the last page")
+    private String nextCursor;
 }
@@ -57,7 +57,7 @@ public class TourSearchRequest {
     @Schema(description = "Only tours with available slots", example = "true")
     private Boolean hasAvailableSlots;
 
-    @Schema(description = "Sort by: price, rating, popular, newest, discount", example = "price")
+    @Schema(description = "Sort by: price, rating, popular, newest, discount, relevance (requires keyword)", example = "price")
     @Builder.Default
     private String sortBy = "newest";
 
@@ -72,4 +72,14 @@ public class TourSearchRequest {
     @Schema(description = "Page size", example = "10")
     @Builder.Default
     private Integer size = 10;
+
+    @Schema(description = "Pagination mode: offset (page/size with totals) or cursor (keyset, no totals)", example = "cursor")
+    @Builder.Default
+    private String pagination = "offset";
+
+    @Schema(description = "Total count strategy for offset pagination: exact, cached, estimated (defaults to server config)", example = "estimated")
+    private String countMode;
+
+    @Schema(description = "Opaque cursor from the previous response's nextCursor; implies cursor pagination")
+    private String cursor;
 }
@@ -1,6 +1,7 @@
 package sun.asterisk.booking_tour.entity;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import jakarta.persistence.CascadeType;
@@ -12,9 +13,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -23,7 +26,10 @@ import lombok.Setter;
 import sun.asterisk.booking_tour.enums.BookingStatus;
 
 @Entity
-@Table(name = "bookings")
+@Table(
+        name = "bookings",
+        indexes = @Index(name = "idx_bookings_status_hold_expires_at", columnList = "status, hold_expires_at")
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -31,7 +37,8 @@ import sun.asterisk.booking_tour.enums.BookingStatus;
 public class Booking extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -76,6 +83,10 @@ public class Booking extends BaseEntity {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    /** Seats of a PENDING booking are returned once this deadline passes without payment */
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
+
     @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Review> reviews;
 
@@ -8,8 +8,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,7 +20,14 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "tokens")
+@Table(
+        name = "tokens",
+        indexes = {
+            @Index(name = "idx_tokens_family_key", columnList = "family_key"),
+            @Index(name = "idx_tokens_user_id", columnList = "user_id"),
+            @Index(name = "idx_tokens_refresh_expires_at", columnList = "refresh_expires_at")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -27,17 +36,24 @@ import lombok.Setter;
 public class Token extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tokens_seq")
+    @SequenceGenerator(name = "tokens_seq", sequenceName = "tokens_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "token_key", nullable = false, unique = true, length = 36)
     private String tokenKey; // UUID key stored in JWT payload
 
-    @Column(name = "refresh_token", nullable = false, columnDefinition = "TEXT")
-    private String refreshToken;
+    /** Token key of the login that started this refresh chain, shared by every rotation */
+    @Column(name = "family_key", nullable = false, length = 36)
+    private String familyKey;
 
-    @Column(name = "access_token", columnDefinition = "TEXT")
-    private String accessToken;
+    /** SHA-256 of the refresh token; the tokens themselves are never stored */
+    @Column(name = "refresh_token_hash", nullable = false, length = 44)
+    private String refreshTokenHash;
+
+    /** Set once the refresh token has been exchanged; presenting it again revokes the family */
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
 
     @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
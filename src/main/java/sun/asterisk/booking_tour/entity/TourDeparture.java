@@ -12,9 +12,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -23,7 +25,10 @@ import lombok.Setter;
 import sun.asterisk.booking_tour.enums.TourDepartureStatus;
 
 @Entity
-@Table(name = "tour_departures")
+@Table(
+        name = "tour_departures",
+        indexes = @Index(name = "idx_tour_departures_tour_status_date", columnList = "tour_id, status, departure_date")
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -31,7 +36,8 @@ import sun.asterisk.booking_tour.enums.TourDepartureStatus;
 public class TourDeparture extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tour_departures_seq")
+    @SequenceGenerator(name = "tour_departures_seq", sequenceName = "tour_departures_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
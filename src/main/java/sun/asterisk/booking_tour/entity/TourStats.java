@@ -0,0 +1,53 @@
+package sun.asterisk.booking_tour.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Denormalized per-tour aggregates read by search and detail pages.
+ * Rows are keyed by tour id and maintained by TourStatsService; the indexes
+ * back the rating and popularity sorts of tour search.
+ */
+@Entity
+@Table(name = "tour_stats", indexes = {
+    @Index(name = "idx_tour_stats_rating", columnList = "average_rating, tour_id"),
+    @Index(name = "idx_tour_stats_likes", columnList = "like_count, tour_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TourStats extends BaseEntity {
+
+    @Id
+    @Column(name = "tour_id")
+    private Long tourId;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount = 0L;
+
+    @Column(name = "average_rating", nullable = false)
+    private Double averageRating = 0.0;
+
+    @Column(name = "like_count", nullable = false)
+    private Long likeCount = 0L;
+
+    @Column(name = "next_departure_date")
+    private LocalDate nextDepartureDate;
+
+    @Column(name = "has_available_slots", nullable = false)
+    private Boolean hasAvailableSlots = false;
+
+}
@@ -4,5 +4,7 @@ public enum PaymentStatus {
     PENDING,
     COMPLETED,
     FAILED,
+    // Paid after the booking's hold was released and its seats were gone; to be refunded
+    REFUND_REQUIRED,
     REFUNDED
 }
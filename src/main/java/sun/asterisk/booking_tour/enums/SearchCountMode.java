@@ -0,0 +1,7 @@
+package sun.asterisk.booking_tour.enums;
+
+public enum SearchCountMode {
+    EXACT,
+    CACHED,
+    ESTIMATED
+}
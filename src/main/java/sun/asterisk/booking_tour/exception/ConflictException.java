@@ -0,0 +1,7 @@
+package sun.asterisk.booking_tour.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
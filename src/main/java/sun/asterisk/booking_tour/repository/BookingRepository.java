@@ -1,13 +1,20 @@
 package sun.asterisk.booking_tour.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
 import sun.asterisk.booking_tour.entity.Booking;
+import sun.asterisk.booking_tour.enums.BookingStatus;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -20,5 +27,51 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             + "where b.code = :code")
     Optional<Booking> findByCodeWithDepartureAndTour(@Param("code") String code);
 
-    boolean existsByCode(String code);
+    /**
+     * Load a booking with the same row lock the hold sweeper takes, so a payment callback
+     * and the sweeper never act on one booking at once
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Lock a batch of PENDING bookings whose seat hold has expired, skipping rows
+     * another sweeper or a payment callback is already holding
+     */
+    @Query(value = "SELECT id FROM bookings "
+            + "WHERE status = 'PENDING' AND hold_expires_at < :now "
+            + "ORDER BY hold_expires_at "
+            + "LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockExpiredHoldIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("select b.tourDeparture.id as departureId, sum(b.numAdults + b.numChildren) as seats "
+            + "from Booking b "
+            + "where b.id in :ids "
+            + "group by b.tourDeparture.id")
+    List<DepartureSeats> sumSeatsByDeparture(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Move the hold deadline of a booking that is still PENDING and not yet expired
+     */
+    @Modifying
+    @Query("update Booking b set b.holdExpiresAt = :deadline, b.updatedAt = CURRENT_TIMESTAMP "
+            + "where b.id = :id and b.status = :status "
+            + "and (b.holdExpiresAt is null or b.holdExpiresAt > :now)")
+    int extendHold(
+            @Param("id") Long id,
+            @Param("status") BookingStatus status,
+            @Param("now") LocalDateTime now,
+            @Param("deadline") LocalDateTime deadline);
+
+    @Modifying
+    @Query("update Booking b set b.status = :status, b.updatedAt = CURRENT_TIMESTAMP where b.id in :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+
+    interface DepartureSeats {
+        Long getDepartureId();
+
+        Long getSeats();
+    }
 }
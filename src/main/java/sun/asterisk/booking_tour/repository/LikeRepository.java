@@ -1,6 +1,11 @@
 package sun.asterisk.booking_tour.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import sun.asterisk.booking_tour.entity.Like;
@@ -9,4 +14,19 @@ import sun.asterisk.booking_tour.entity.Like;
 public interface LikeRepository extends JpaRepository<Like, Long> {
     
     Long countByTourId(Long tourId);
+
+    /**
+     * Like count for a batch of tours, one row per tour that has likes
+     */
+    @Query("SELECT l.tour.id AS tourId, COUNT(l) AS totalLikes " +
+           "FROM Like l " +
+           "WHERE l.tour.id IN :tourIds " +
+           "GROUP BY l.tour.id")
+    List<TourLikeCount> countByTourIds(@Param("tourIds") Collection<Long> tourIds);
+
+    interface TourLikeCount {
+        Long getTourId();
+
+        Long getTotalLikes();
+    }
 }
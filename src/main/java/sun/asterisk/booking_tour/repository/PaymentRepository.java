@@ -1,14 +1,30 @@
 package sun.asterisk.booking_tour.repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import sun.asterisk.booking_tour.entity.Payment;
+import sun.asterisk.booking_tour.enums.PaymentStatus;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     Optional<Payment> findByTransactionId(String transactionId);
+
+    @Query("select p.booking.id from Payment p where p.transactionId = :transactionId")
+    Optional<Long> findBookingIdByTransactionId(@Param("transactionId") String transactionId);
+
+    @Modifying
+    @Query("update Payment p set p.status = :newStatus, p.updatedAt = CURRENT_TIMESTAMP "
+            + "where p.booking.id in :bookingIds and p.status = :currentStatus")
+    int updateStatusByBookingIds(
+            @Param("bookingIds") Collection<Long> bookingIds,
+            @Param("currentStatus") PaymentStatus currentStatus,
+            @Param("newStatus") PaymentStatus newStatus);
 }
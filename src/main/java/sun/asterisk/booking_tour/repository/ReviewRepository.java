@@ -1,5 +1,8 @@
 package sun.asterisk.booking_tour.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -28,4 +31,25 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
         @Param("tourId") Long tourId,
         @Param("status") ReviewStatus status
     );
+
+    /**
+     * Rating sum and review count for a batch of tours, one row per tour that has reviews
+     */
+    @Query("SELECT r.tour.id AS tourId, SUM(r.rating) AS ratingSum, COUNT(r) AS totalReviews " +
+           "FROM Review r " +
+           "WHERE r.tour.id IN :tourIds " +
+           "AND r.status = :status " +
+           "GROUP BY r.tour.id")
+    List<TourRatingSummary> summarizeRatingsByTourIds(
+        @Param("tourIds") Collection<Long> tourIds,
+        @Param("status") ReviewStatus status
+    );
+
+    interface TourRatingSummary {
+        Long getTourId();
+
+        Long getRatingSum();
+
+        Long getTotalReviews();
+    }
 }
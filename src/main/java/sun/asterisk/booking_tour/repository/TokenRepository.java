@@ -26,9 +26,22 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
     List<Token> findByUserId(Long userId);
     
     /**
-     * Find token by refresh token
+     * Find token by token key together with its user and role, for issuing a new pair
      */
-    Optional<Token> findByRefreshToken(String refreshToken);
+    @Query("SELECT t FROM Token t JOIN FETCH t.user u LEFT JOIN FETCH u.role WHERE t.tokenKey = :tokenKey")
+    Optional<Token> findWithUserByTokenKey(@Param("tokenKey") String tokenKey);
+
+    /**
+     * Find all tokens issued by rotation from the same login
+     */
+    List<Token> findByFamilyKey(String familyKey);
+
+    /**
+     * Mark a refresh token as exchanged; returns 0 when another request got there first
+     */
+    @Modifying
+    @Query("UPDATE Token t SET t.rotatedAt = :now WHERE t.id = :id AND t.rotatedAt IS NULL")
+    int markRotated(@Param("id") Long id, @Param("now") LocalDateTime now);
     
     /**
      * Delete token by token key
@@ -38,11 +51,20 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
     int deleteByTokenKey(@Param("tokenKey") String tokenKey);
     
     /**
-     * Delete expired tokens
+     * Delete every token in a refresh family
+     */
+    @Modifying
+    @Query("DELETE FROM Token t WHERE t.familyKey = :familyKey")
+    int deleteByFamilyKey(@Param("familyKey") String familyKey);
+
+    /**
+     * Delete up to limit tokens whose refresh token has expired
      */
     @Modifying
-    @Query("DELETE FROM Token t WHERE t.refreshExpiresAt < :now")
-    int deleteExpiredTokens(@Param("now") LocalDateTime now);
+    @Query(value = "DELETE FROM tokens WHERE id IN ("
+            + "SELECT id FROM tokens WHERE refresh_expires_at < :now "
+            + "LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
     
     /**
      * Check if token key exists
@@ -1,20 +1,76 @@
 package sun.asterisk.booking_tour.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.LockModeType;
 import sun.asterisk.booking_tour.entity.TourDeparture;
 import sun.asterisk.booking_tour.enums.TourDepartureStatus;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface TourDepartureRepository extends JpaRepository<TourDeparture, Long> {
     
     List<TourDeparture> findByTourId(Long tourId);
+
+    boolean existsByTourId(Long tourId);
+
+    /**
+     * Atomically take seats from a departure. Returns 0 when fewer than {@code count}
+     * seats are left, so concurrent bookings can never oversell.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TourDeparture td " +
+           "SET td.availableSlots = td.availableSlots - :count, " +
+           "td.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE td.id = :id " +
+           "AND td.availableSlots >= :count")
+    int reserveSlots(@Param("id") Long id, @Param("count") int count);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT td FROM TourDeparture td WHERE td.id IN :ids ORDER BY td.id")
+    List<TourDeparture> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT td.availableSlots FROM TourDeparture td WHERE td.id = :id")
+    Integer findAvailableSlotsById(@Param("id") Long id);
+
+    @Query("SELECT td.tour.id FROM TourDeparture td WHERE td.id = :id")
+    Long findTourIdById(@Param("id") Long id);
+
+    /**
+     * Apply seats already reserved in Redis for a hot departure (negative to give seats back)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE TourDeparture td " +
+           "SET td.availableSlots = td.availableSlots - :count, " +
+           "td.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE td.id = :id")
+    int applyReservedSlots(@Param("id") Long id, @Param("count") int count);
+
+    /**
+     * Upcoming departures of a tour in date order, filtered and limited in SQL
+     */
+    @Query("SELECT td FROM TourDeparture td " +
+           "WHERE td.tour.id = :tourId " +
+           "AND td.status = :status " +
+           "AND td.departureDate >= :fromDate " +
+           "ORDER BY td.departureDate ASC, td.id ASC")
+    List<TourDeparture> findUpcomingDepartures(
+        @Param("tourId") Long tourId,
+        @Param("fromDate") LocalDate fromDate,
+        @Param("status") TourDepartureStatus status,
+        Limit limit
+    );
     
     @Query("SELECT CASE WHEN COUNT(td) > 0 THEN true ELSE false END " +
            "FROM TourDeparture td " +
@@ -41,4 +97,26 @@ public interface TourDepartureRepository extends JpaRepository<TourDeparture, Lo
         @Param("currentDate") LocalDate currentDate,
         @Param("status") TourDepartureStatus status
     );
+
+    /**
+     * Earliest bookable departure date for a batch of tours, one row per tour that has one
+     */
+    @Query("SELECT td.tour.id AS tourId, MIN(td.departureDate) AS nextDepartureDate " +
+           "FROM TourDeparture td " +
+           "WHERE td.tour.id IN :tourIds " +
+           "AND td.departureDate >= :currentDate " +
+           "AND td.status = :status " +
+           "AND td.availableSlots > 0 " +
+           "GROUP BY td.tour.id")
+    List<TourNextDeparture> findNextAvailableDepartureDates(
+        @Param("tourIds") Collection<Long> tourIds,
+        @Param("currentDate") LocalDate currentDate,
+        @Param("status") TourDepartureStatus status
+    );
+
+    interface TourNextDeparture {
+        Long getTourId();
+
+        LocalDate getNextDepartureDate();
+    }
 }
@@ -1,7 +1,10 @@
 package sun.asterisk.booking_tour.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import sun.asterisk.booking_tour.entity.Tour;
@@ -9,9 +12,19 @@ import sun.asterisk.booking_tour.entity.Tour;
 import java.util.Optional;
 
 @Repository
-public interface TourRepository extends JpaRepository<Tour, Long>, JpaSpecificationExecutor<Tour> {
+public interface TourRepository extends JpaRepository<Tour, Long>, JpaSpecificationExecutor<Tour>,
+        TourSearchRepository {
     
     Optional<Tour> findBySlug(String slug);
+
+    /**
+     * Tour with category, creator and images loaded in the same query, for the detail page
+     */
+    @EntityGraph(attributePaths = {"category", "creator", "tourImages"})
+    Optional<Tour> findWithDetailsBySlug(String slug);
     
     boolean existsBySlug(String slug);
+
+    @Query("SELECT t.slug FROM Tour t WHERE t.id = :id")
+    Optional<String> findSlugById(@Param("id") Long id);
 }
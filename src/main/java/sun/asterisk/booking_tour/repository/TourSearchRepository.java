@@ -0,0 +1,35 @@
+package sun.asterisk.booking_tour.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import sun.asterisk.booking_tour.entity.Tour;
+
+/**
+ * Search queries that page without running a COUNT
+ */
+public interface TourSearchRepository {
+
+    /**
+     * Fetch one page (category loaded) plus one extra row to tell whether a next page exists
+     */
+    Slice<Tour> findSlice(Specification<Tour> spec, Pageable pageable);
+
+    /**
+     * Count matching tours, stopping once more than {@code limit} rows have been seen
+     */
+    long countUpTo(Specification<Tour> spec, long limit);
+
+    /**
+     * Fetch up to {@code limit} tours (category loaded) in the specification's own order,
+     * each with the value of its first sort key as the query computed it, so a keyset
+     * cursor can be built from the last row without looking it up again
+     */
+    List<KeysetRow> findKeysetRows(Specification<Tour> spec, int limit);
+
+    record KeysetRow(Tour tour, Comparable<?> sortValue) {
+    }
+}
@@ -0,0 +1,103 @@
+package sun.asterisk.booking_tour.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import sun.asterisk.booking_tour.entity.Tour;
+
+public class TourSearchRepositoryImpl implements TourSearchRepository {
+
+    private static final String LOAD_GRAPH_HINT = "jakarta.persistence.loadgraph";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Tour> findSlice(Specification<Tour> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tour> query = cb.createQuery(Tour.class);
+        Root<Tour> root = query.from(Tour.class);
+        query.select(root);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        EntityGraph<Tour> graph = entityManager.createEntityGraph(Tour.class);
+        graph.addAttributeNodes("category");
+
+        TypedQuery<Tour> typedQuery = entityManager.createQuery(query)
+                .setHint(LOAD_GRAPH_HINT, graph)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1);
+
+        List<Tour> rows = typedQuery.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<Tour> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public long countUpTo(Specification<Tour> spec, long limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        // Long result type, so the specification treats it like a count query (no ordering)
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Tour> root = query.from(Tour.class);
+        query.select(root.get("id"));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults((int) Math.min(limit + 1, Integer.MAX_VALUE))
+                .getResultList()
+                .size();
+    }
+
+    @Override
+    public List<KeysetRow> findKeysetRows(Specification<Tour> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Tour> root = query.from(Tour.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (query.getOrderList().isEmpty()) {
+            throw new IllegalArgumentException("Keyset specification must order the query");
+        }
+        query.multiselect(root, query.getOrderList().get(0).getExpression());
+
+        EntityGraph<Tour> graph = entityManager.createEntityGraph(Tour.class);
+        graph.addAttributeNodes("category");
+
+        return entityManager.createQuery(query)
+                .setHint(LOAD_GRAPH_HINT, graph)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(row -> new KeysetRow((Tour) row[0], (Comparable<?>) row[1]))
+                .toList();
+    }
+}
@@ -0,0 +1,90 @@
+package sun.asterisk.booking_tour.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import sun.asterisk.booking_tour.entity.TourStats;
+
+@Repository
+public interface TourStatsRepository extends JpaRepository<TourStats, Long> {
+
+    @Modifying
+    @Query("UPDATE TourStats s " +
+           "SET s.ratingSum = s.ratingSum + :ratingDelta, " +
+           "s.reviewCount = s.reviewCount + :countDelta, " +
+           "s.averageRating = CASE WHEN s.reviewCount + :countDelta > 0 " +
+           "THEN (s.ratingSum + :ratingDelta) * 1.0 / (s.reviewCount + :countDelta) ELSE 0.0 END, " +
+           "s.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE s.tourId = :tourId")
+    int addReviews(
+        @Param("tourId") Long tourId,
+        @Param("ratingDelta") long ratingDelta,
+        @Param("countDelta") long countDelta
+    );
+
+    @Modifying
+    @Query("UPDATE TourStats s " +
+           "SET s.likeCount = s.likeCount + :delta, " +
+           "s.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE s.tourId = :tourId")
+    int addLikes(@Param("tourId") Long tourId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE TourStats s " +
+           "SET s.nextDepartureDate = :nextDepartureDate, " +
+           "s.hasAvailableSlots = :hasAvailableSlots, " +
+           "s.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE s.tourId = :tourId")
+    int updateDepartureSummary(
+        @Param("tourId") Long tourId,
+        @Param("nextDepartureDate") LocalDate nextDepartureDate,
+        @Param("hasAvailableSlots") boolean hasAvailableSlots
+    );
+
+    @Query("SELECT COALESCE(MAX(t.id), 0) FROM Tour t")
+    Long findMaxTourId();
+
+    /**
+     * Recompute stats from reviews, likes and departures for tours with id in [fromId, toId]
+     * and upsert them in a single set-based statement
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value =
+           "INSERT INTO tour_stats (tour_id, rating_sum, review_count, average_rating, like_count, " +
+           "next_departure_date, has_available_slots, created_at, updated_at) " +
+           "SELECT t.id, COALESCE(r.rating_sum, 0), COALESCE(r.review_count, 0), " +
+           "COALESCE(CAST(r.rating_sum AS double precision) / r.review_count, 0), COALESCE(l.like_count, 0), " +
+           "d.next_departure_date, d.next_departure_date IS NOT NULL, now(), now() " +
+           "FROM tours t " +
+           "LEFT JOIN (SELECT tour_id, SUM(rating) AS rating_sum, COUNT(*) AS review_count " +
+           "  FROM reviews WHERE status = 'APPROVED' AND tour_id BETWEEN :fromId AND :toId " +
+           "  GROUP BY tour_id) r ON r.tour_id = t.id " +
+           "LEFT JOIN (SELECT tour_id, COUNT(*) AS like_count " +
+           "  FROM likes WHERE tour_id BETWEEN :fromId AND :toId " +
+           "  GROUP BY tour_id) l ON l.tour_id = t.id " +
+           "LEFT JOIN (SELECT tour_id, MIN(departure_date) AS next_departure_date " +
+           "  FROM tour_departures WHERE status = 'OPEN' AND available_slots > 0 " +
+           "  AND departure_date >= :today AND tour_id BETWEEN :fromId AND :toId " +
+           "  GROUP BY tour_id) d ON d.tour_id = t.id " +
+           "WHERE t.id BETWEEN :fromId AND :toId " +
+           "ON CONFLICT (tour_id) DO UPDATE SET " +
+           "rating_sum = EXCLUDED.rating_sum, " +
+           "review_count = EXCLUDED.review_count, " +
+           "average_rating = EXCLUDED.average_rating, " +
+           "like_count = EXCLUDED.like_count, " +
+           "next_departure_date = EXCLUDED.next_departure_date, " +
+           "has_available_slots = EXCLUDED.has_available_slots, " +
+           "updated_at = now()")
+    int rebuildRange(
+        @Param("fromId") Long fromId,
+        @Param("toId") Long toId,
+        @Param("today") LocalDate today
+    );
+}
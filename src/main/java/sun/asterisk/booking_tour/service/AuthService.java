@@ -1,14 +1,25 @@
 package sun.asterisk.booking_tour.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import sun.asterisk.booking_tour.config.JwtTokenProvider;
 import sun.asterisk.booking_tour.dto.auth.AuthResponse;
 import sun.asterisk.booking_tour.dto.auth.UserInfo;
@@ -18,7 +29,6 @@ import sun.asterisk.booking_tour.entity.Token;
 import sun.asterisk.booking_tour.entity.User;
 import sun.asterisk.booking_tour.enums.UserStatus;
 import sun.asterisk.booking_tour.exception.ValidationException;
-import sun.asterisk.booking_tour.repository.RoleRepository;
 import sun.asterisk.booking_tour.repository.TokenRepository;
 import sun.asterisk.booking_tour.repository.UserRepository;
 import sun.asterisk.booking_tour.enums.AuthProvider;
@@ -34,9 +44,10 @@ public class AuthService {
     private final UserRepository userRepository;
     private final TokenRepository tokenRepository;
     private final JwtTokenProvider jwtTokenProvider;
-    private final WebClient.Builder webClientBuilder;
-    private final RoleRepository roleRepository;
+    private final WebClient webClient;
+    private final RoleCacheService roleCacheService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final PlatformTransactionManager transactionManager;
 
     @Value("${oauth.google.client-id}")
     private String googleClientId;
@@ -68,77 +79,111 @@ public class AuthService {
     /**
      * Login with Google authorization code
      */
-    @Transactional
-    public AuthResponse loginWithGoogle(String code) {
-        try {
-            String accessToken = exchangeGoogleCodeForToken(code);
-            UserInfo userInfo = getGoogleUserInfo(accessToken);
-            User user = findOrCreateUser(userInfo, AuthProvider.GOOGLE.name());
-
-            return generateAuthResponse(user);
-
-        } catch (Exception e) {
-            logger.error("Error verifying Google code", e);
-            throw new ValidationException("Invalid Google authorization code");
-        }
+    public Mono<AuthResponse> loginWithGoogle(String code) {
+        return exchangeGoogleCodeForToken(code)
+                .flatMap(this::getGoogleUserInfo)
+                .flatMap(userInfo -> completeLogin(userInfo, AuthProvider.GOOGLE.name()))
+                .onErrorMap(e -> {
+                    logger.error("Error verifying Google code", e);
+                    return new ValidationException("Invalid Google authorization code");
+                });
     }
 
     /**
      * Login with Facebook authorization code
      */
-    @Transactional
-    public AuthResponse loginWithFacebook(String code) {
-        try {
-            String accessToken = exchangeFacebookCodeForToken(code);
-            UserInfo userInfo = getFacebookUserInfo(accessToken);
-
-            User user = findOrCreateUser(userInfo, AuthProvider.FACEBOOK.name());
+    public Mono<AuthResponse> loginWithFacebook(String code) {
+        return exchangeFacebookCodeForToken(code)
+                .flatMap(this::getFacebookUserInfo)
+                .flatMap(userInfo -> completeLogin(userInfo, AuthProvider.FACEBOOK.name()))
+                .onErrorMap(e -> {
+                    logger.error("Error verifying Facebook code", e);
+                    return new ValidationException("Invalid Facebook authorization code");
+                });
+    }
 
-            return generateAuthResponse(user);
+    /**
+     * Login with Twitter authorization code
+     */
+    public Mono<AuthResponse> loginWithTwitter(String code) {
+        return exchangeTwitterCodeForToken(code)
+                .flatMap(this::getTwitterUserInfo)
+                .flatMap(userInfo -> completeLogin(userInfo, AuthProvider.TWITTER.name()))
+                .onErrorMap(e -> {
+                    logger.error("Error verifying Twitter code", e);
+                    return new ValidationException("Invalid Twitter authorization code");
+                });
+    }
 
-        } catch (Exception e) {
-            logger.error("Error verifying Facebook code", e);
-            throw new ValidationException("Invalid Facebook authorization code");
-        }
+    /**
+     * Find or create the user, then issue tokens in one transaction. The user is resolved
+     * first so a login never holds two pooled connections at once. JPA blocks, so this
+     * runs on the bounded elastic pool rather than on a Netty event loop.
+     */
+    private Mono<AuthResponse> completeLogin(UserInfo userInfo, String provider) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return Mono.fromCallable(() -> {
+                    User user = findOrCreateUser(userInfo, provider);
+                    return transaction.execute(status -> generateAuthResponse(user));
+                })
+                .subscribeOn(Schedulers.boundedElastic());
     }
 
     /**
-     * Login with Twitter authorization code
+     * Exchange a refresh token for a new token pair. Each refresh token works once: the
+     * pair it came from is marked rotated, and presenting a rotated token again is taken
+     * as theft, so every token issued from that login is revoked.
      */
-    @Transactional
-    public AuthResponse loginWithTwitter(String code) {
-        try {
-            String accessToken = exchangeTwitterCodeForToken(code);
-            UserInfo userInfo = getTwitterUserInfo(accessToken);
+    @Transactional(noRollbackFor = ValidationException.class)
+    public AuthResponse refresh(String refreshToken) {
+        Claims claims = jwtTokenProvider.parseClaims(refreshToken);
+        if (claims == null || !"refresh".equals(claims.get("type", String.class))) {
+            throw new ValidationException("Invalid or expired refresh token");
+        }
 
-            User user = findOrCreateUser(userInfo, AuthProvider.TWITTER.name());
+        String tokenKey = claims.get("tokenKey", String.class);
+        Token token = tokenRepository.findWithUserByTokenKey(tokenKey)
+                .orElseThrow(() -> new ValidationException("Invalid or expired refresh token"));
 
-            return generateAuthResponse(user);
+        byte[] presentedHash = jwtTokenProvider.hashToken(refreshToken).getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(presentedHash, token.getRefreshTokenHash().getBytes(StandardCharsets.UTF_8))) {
+            throw new ValidationException("Invalid or expired refresh token");
+        }
 
-        } catch (Exception e) {
-            logger.error("Error verifying Twitter code", e);
-            throw new ValidationException("Invalid Twitter authorization code");
+        // Conditional update, so of two concurrent requests with the same token only one rotates it
+        if (token.getRotatedAt() != null || tokenRepository.markRotated(token.getId(), LocalDateTime.now()) == 0) {
+            revokeFamily(token.getFamilyKey());
+            logger.warn("Refresh token reuse detected for user: {}, revoked token family: {}",
+                    token.getUser().getId(), token.getFamilyKey());
+            throw new ValidationException("Refresh token has already been used. Please log in again.");
         }
+
+        return generateAuthResponse(token.getUser(), token.getFamilyKey());
     }
 
     /**
-     * Logout user by revoking token in Redis blacklist
+     * Logout user by revoking token in Redis blacklist, along with every other token
+     * issued from the same login
      */
     @Transactional
     public void logout(String accessToken) {
-        if (!jwtTokenProvider.validateToken(accessToken)) {
+        Claims claims = jwtTokenProvider.parseClaims(accessToken);
+        if (claims == null) {
             throw new ValidationException("Invalid or expired token");
         }
 
-        String tokenKey = jwtTokenProvider.getTokenKeyFromToken(accessToken);
+        String tokenKey = claims.get("tokenKey", String.class);
 
         if (tokenKey == null || tokenKey.isEmpty()) {
             throw new ValidationException("Token key not found in token payload");
         }
 
-        // Add token to Redis blacklist with TTL matching JWT expiration
-        long ttlSeconds = jwtTokenProvider.getJwtExpiration();
-        tokenBlacklistService.blacklistToken(tokenKey, ttlSeconds);
+        // Revoking the family blacklists this token too; without a stored row, blacklist it
+        // with TTL matching JWT expiration
+        tokenRepository.findByTokenKey(tokenKey).ifPresentOrElse(
+                token -> revokeFamily(token.getFamilyKey()),
+                () -> tokenBlacklistService.blacklistToken(tokenKey, jwtTokenProvider.getJwtExpiration())
+        );
 
         logger.info("Successfully blacklisted token with key: {}", tokenKey);
 
@@ -147,38 +192,28 @@ public class AuthService {
     /**
      * Exchange Google authorization code for access token
      */
-    private String exchangeGoogleCodeForToken(String code) {
-        WebClient webClient = webClientBuilder.build();
-
-        try {
-            GoogleTokenResponse response = webClient.post()
-                    .uri("https://oauth2.googleapis.com/token")
-                    .header("Content-Type", "application/x-www-form-urlencoded")
-                    .bodyValue(String.format(
-                            "grant_type=authorization_code&code=%s&redirect_uri=%s&client_id=%s&client_secret=%s",
-                            code, googleRedirectUri, googleClientId, googleClientSecret))
-                    .retrieve()
-                    .bodyToMono(GoogleTokenResponse.class)
-                    .block();
-
-            if (response == null || response.getAccessToken() == null) {
-                throw new ValidationException("Failed to exchange Google code for token");
-            }
-
-            return response.getAccessToken();
-        } catch (Exception e) {
-            logger.error("Failed to exchange Google code: {}", e.getMessage());
-            throw new ValidationException("Failed to exchange Google authorization code. Please ensure the code is valid and not expired.");
-        }
+    private Mono<String> exchangeGoogleCodeForToken(String code) {
+        return webClient.post()
+                .uri("https://oauth2.googleapis.com/token")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .bodyValue(String.format(
+                        "grant_type=authorization_code&code=%s&redirect_uri=%s&client_id=%s&client_secret=%s",
+                        code, googleRedirectUri, googleClientId, googleClientSecret))
+                .retrieve()
+                .bodyToMono(GoogleTokenResponse.class)
+                .mapNotNull(GoogleTokenResponse::getAccessToken)
+                .switchIfEmpty(Mono.error(() -> new ValidationException("Failed to exchange Google code for token")))
+                .onErrorMap(e -> {
+                    logger.error("Failed to exchange Google code: {}", e.getMessage());
+                    return new ValidationException("Failed to exchange Google authorization code. Please ensure the code is valid and not expired.");
+                });
     }
 
     /**
      * Get Google user information using access token
      */
-    private UserInfo getGoogleUserInfo(String accessToken) {
-        WebClient webClient = webClientBuilder.build();
-
-        GoogleUserInfo response = webClient.get()
+    private Mono<UserInfo> getGoogleUserInfo(String accessToken) {
+        return webClient.get()
                 .uri(uriBuilder -> uriBuilder
                 .scheme("https")
                 .host("www.googleapis.com")
@@ -187,28 +222,22 @@ public class AuthService {
                 .build())
                 .retrieve()
                 .bodyToMono(GoogleUserInfo.class)
-                .block();
-
-        if (response == null || response.getEmail() == null) {
-            throw new ValidationException("Failed to get Google user info");
-        }
-
-        return UserInfo.builder()
-                .email(response.getEmail())
-                .firstName(response.getGivenName())
-                .lastName(response.getFamilyName())
-                .avatarUrl(response.getPicture())
-                .provider("GOOGLE")
-                .build();
+                .filter(response -> response.getEmail() != null)
+                .switchIfEmpty(Mono.error(() -> new ValidationException("Failed to get Google user info")))
+                .map(response -> UserInfo.builder()
+                        .email(response.getEmail())
+                        .firstName(response.getGivenName())
+                        .lastName(response.getFamilyName())
+                        .avatarUrl(response.getPicture())
+                        .provider("GOOGLE")
+                        .build());
     }
 
     /**
      * Exchange Facebook authorization code for access token
      */
-    private String exchangeFacebookCodeForToken(String code) {
-        WebClient webClient = webClientBuilder.build();
-
-        FacebookTokenResponse response = webClient.get()
+    private Mono<String> exchangeFacebookCodeForToken(String code) {
+        return webClient.get()
                 .uri(uriBuilder -> uriBuilder
                 .scheme("https")
                 .host("graph.facebook.com")
@@ -220,24 +249,15 @@ public class AuthService {
                 .build())
                 .retrieve()
                 .bodyToMono(FacebookTokenResponse.class)
-                .block();
-
-        System.out.println("Facebook Token Response: " + response);
-
-        if (response == null || response.getAccessToken() == null) {
-            throw new ValidationException("Failed to exchange Facebook code for token");
-        }
-
-        return response.getAccessToken();
+                .mapNotNull(FacebookTokenResponse::getAccessToken)
+                .switchIfEmpty(Mono.error(() -> new ValidationException("Failed to exchange Facebook code for token")));
     }
 
     /**
      * Get Facebook user information using access token
      */
-    private UserInfo getFacebookUserInfo(String accessToken) {
-        WebClient webClient = webClientBuilder.build();
-
-        FacebookUserInfo response = webClient.get()
+    private Mono<UserInfo> getFacebookUserInfo(String accessToken) {
+        return webClient.get()
                 .uri(uriBuilder -> uriBuilder
                 .scheme("https")
                 .host("graph.facebook.com")
@@ -247,28 +267,22 @@ public class AuthService {
                 .build())
                 .retrieve()
                 .bodyToMono(FacebookUserInfo.class)
-                .block();
-
-        if (response == null || response.getEmail() == null) {
-            throw new ValidationException("Failed to get user info from Facebook");
-        }
-
-        return UserInfo.builder()
-                .email(response.getEmail())
-                .firstName(response.getFirstName())
-                .lastName(response.getLastName())
-                .avatarUrl(response.getPicture() != null ? response.getPicture().getData().getUrl() : null)
-                .provider("FACEBOOK")
-                .build();
+                .filter(response -> response.getEmail() != null)
+                .switchIfEmpty(Mono.error(() -> new ValidationException("Failed to get user info from Facebook")))
+                .map(response -> UserInfo.builder()
+                        .email(response.getEmail())
+                        .firstName(response.getFirstName())
+                        .lastName(response.getLastName())
+                        .avatarUrl(response.getPicture() != null ? response.getPicture().getData().getUrl() : null)
+                        .provider("FACEBOOK")
+                        .build());
     }
 
     /**
      * Exchange Twitter authorization code for access token
      */
-    private String exchangeTwitterCodeForToken(String code) {
-        WebClient webClient = webClientBuilder.build();
-
-        TwitterTokenResponse response = webClient.post()
+    private Mono<String> exchangeTwitterCodeForToken(String code) {
+        return webClient.post()
                 .uri("https://api.twitter.com/2/oauth2/token")
                 .header("Content-Type", "application/x-www-form-urlencoded")
                 .bodyValue(String.format(
@@ -276,22 +290,15 @@ public class AuthService {
                         code, twitterRedirectUri, twitterClientId, twitterClientSecret))
                 .retrieve()
                 .bodyToMono(TwitterTokenResponse.class)
-                .block();
-
-        if (response == null || response.getAccessToken() == null) {
-            throw new ValidationException("Failed to exchange Twitter code for token");
-        }
-
-        return response.getAccessToken();
+                .mapNotNull(TwitterTokenResponse::getAccessToken)
+                .switchIfEmpty(Mono.error(() -> new ValidationException("Failed to exchange Twitter code for token")));
     }
 
     /**
      * Get Twitter user information using access token
      */
-    private UserInfo getTwitterUserInfo(String accessToken) {
-        WebClient webClient = webClientBuilder.build();
-
-        TwitterUserResponse response = webClient.get()
+    private Mono<UserInfo> getTwitterUserInfo(String accessToken) {
+        return webClient.get()
                 .uri(uriBuilder -> uriBuilder
                 .scheme("https")
                 .host("api.twitter.com")
@@ -301,54 +308,81 @@ public class AuthService {
                 .header("Authorization", "Bearer " + accessToken)
                 .retrieve()
                 .bodyToMono(TwitterUserResponse.class)
-                .block();
+                .mapNotNull(TwitterUserResponse::getData)
+                .switchIfEmpty(Mono.error(() -> new ValidationException("Failed to get user info from Twitter")))
+                .map(userData -> {
+                    String[] nameParts = userData.getName() != null ? userData.getName().split(" ", 2) : new String[]{"", ""};
+
+                    return UserInfo.builder()
+                            .email(userData.getUsername() + "@twitter.oauth") // Twitter doesn't provide email in v2 API
+                            .firstName(nameParts.length > 0 ? nameParts[0] : "")
+                            .lastName(nameParts.length > 1 ? nameParts[1] : "")
+                            .avatarUrl(userData.getProfileImageUrl())
+                            .provider("TWITTER")
+                            .build();
+                });
+    }
 
-        if (response == null || response.getData() == null) {
-            throw new ValidationException("Failed to get user info from Twitter");
+    /**
+     * Find existing user or create new one, outside any surrounding transaction. When a
+     * concurrent login created the same email first, the insert fails on the unique index
+     * and the re-read returns the other login's user.
+     */
+    private User findOrCreateUser(UserInfo userInfo, String provider) {
+        Optional<User> existing = userRepository.findByEmailWithRole(userInfo.getEmail());
+        if (existing.isPresent()) {
+            return existing.get();
         }
 
-        TwitterUserData userData = response.getData();
-        String[] nameParts = userData.getName() != null ? userData.getName().split(" ", 2) : new String[]{"", ""};
+        Role userRole = roleCacheService.findByName("USER")
+                .orElseThrow(() -> new ValidationException("Default USER role not found. Please run data seeding."));
 
-        return UserInfo.builder()
-                .email(userData.getUsername() + "@twitter.oauth") // Twitter doesn't provide email in v2 API
-                .firstName(nameParts.length > 0 ? nameParts[0] : "")
-                .lastName(nameParts.length > 1 ? nameParts[1] : "")
-                .avatarUrl(userData.getProfileImageUrl())
-                .provider("TWITTER")
-                .build();
+        User newUser = new User();
+        newUser.setEmail(userInfo.getEmail());
+        newUser.setFirstName(userInfo.getFirstName());
+        newUser.setLastName(userInfo.getLastName());
+        newUser.setAvatarUrl(userInfo.getAvatarUrl());
+        newUser.setPassword("");
+        newUser.setIsVerified(true);
+        newUser.setStatus(UserStatus.ACTIVE);
+        newUser.setRole(userRole);
+
+        try {
+            userRepository.saveAndFlush(newUser);
+            logger.info("Created new user with email: {} via {} and assigned role: {}", newUser.getEmail(), provider, userRole.getName());
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("User with email {} was created by a concurrent login", userInfo.getEmail());
+        }
+
+        return userRepository.findByEmailWithRole(userInfo.getEmail()).orElseThrow();
     }
 
     /**
-     * Find existing user or create new one
+     * Blacklist the access tokens of a refresh family that are still live and delete the family
      */
-    private User findOrCreateUser(UserInfo userInfo, String provider) {
-        return userRepository.findByEmail(userInfo.getEmail())
-                .orElseGet(() -> {
-                    Role userRole = roleRepository.findByName("USER")
-                            .orElseThrow(() -> new ValidationException("Default USER role not found. Please run data seeding."));
-
-                    User newUser = new User();
-                    newUser.setEmail(userInfo.getEmail());
-                    newUser.setFirstName(userInfo.getFirstName());
-                    newUser.setLastName(userInfo.getLastName());
-                    newUser.setAvatarUrl(userInfo.getAvatarUrl());
-                    newUser.setPassword("");
-                    newUser.setIsVerified(true);
-                    newUser.setStatus(UserStatus.ACTIVE);
-                    newUser.setRole(userRole);
-
-                    User savedUser = userRepository.save(newUser);
-                    logger.info("Created new user with email: {} and assigned role: {}", savedUser.getEmail(), userRole.getName());
-
-                    return savedUser;
-                });
+    private void revokeFamily(String familyKey) {
+        List<Token> family = tokenRepository.findByFamilyKey(familyKey);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Token member : family) {
+            if (member.getExpiresAt().isAfter(now)) {
+                long ttlSeconds = Duration.between(now, member.getExpiresAt()).getSeconds() + 1;
+                tokenBlacklistService.blacklistToken(member.getTokenKey(), ttlSeconds);
+            }
+        }
+
+        tokenRepository.deleteByFamilyKey(familyKey);
+    }
+
+    private AuthResponse generateAuthResponse(User user) {
+        return generateAuthResponse(user, null);
     }
 
     /**
-     * Generate authentication response with JWT tokens and save to database
+     * Generate authentication response with JWT tokens and save the refresh token hash.
+     * A null family key starts a new family, as on login.
      */
-    private AuthResponse generateAuthResponse(User user) {
+    private AuthResponse generateAuthResponse(User user, String familyKey) {
         // Generate unique token key (UUID)
         String tokenKey = jwtTokenProvider.generateTokenKey();
 
@@ -361,11 +395,11 @@ public class AuthService {
         LocalDateTime accessExpiresAt = now.plusSeconds(jwtTokenProvider.getJwtExpiration());
         LocalDateTime refreshExpiresAt = now.plusSeconds(jwtTokenProvider.getRefreshExpiration());
 
-        // Save token to database
+        // Only the hash is stored; the token itself is returned to the client and nowhere else
         Token token = Token.builder()
                 .tokenKey(tokenKey)
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
+                .familyKey(familyKey != null ? familyKey : tokenKey)
+                .refreshTokenHash(jwtTokenProvider.hashToken(refreshToken))
                 .user(user)
                 .expiresAt(accessExpiresAt)
                 .refreshExpiresAt(refreshExpiresAt)
@@ -0,0 +1,100 @@
+package sun.asterisk.booking_tour.service;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Booking codes that are unique by construction, Snowflake style.
+ *
+ * The id packs milliseconds since 2024-01-01 (41 bits), the node id (10 bits) and a
+ * per-millisecond sequence (12 bits), and is written as "BK" plus base 36. Every
+ * instance must run with a distinct booking-code.node-id. When it is not set the node id
+ * is taken from the low 10 bits of the host's site-local IPv4 address, which is distinct
+ * for instances within one /22; without such an address startup fails. If the clock
+ * steps back or a millisecond runs out of sequence numbers, the generator keeps counting
+ * from the last timestamp it used instead of waiting, so codes stay monotonic.
+ */
+@Component
+@Slf4j
+public class BookingCodeGenerator {
+
+    private static final String PREFIX = "BK";
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    @Value("${booking-code.node-id:}")
+    private String configuredNodeId;
+
+    private long nodeId;
+
+    private long lastTimestamp = -1L;
+    private long sequence;
+
+    @PostConstruct
+    void initNodeId() {
+        if (configuredNodeId == null || configuredNodeId.isBlank()) {
+            nodeId = nodeIdFromHostAddress();
+            log.info("booking-code.node-id not set, using {} from the host address", nodeId);
+        } else {
+            nodeId = Long.parseLong(configuredNodeId.trim());
+        }
+
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("booking-code.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+    }
+
+    public String nextCode() {
+        return PREFIX + Long.toString(nextId(), 36).toUpperCase(Locale.ROOT);
+    }
+
+    private synchronized long nextId() {
+        long timestamp = Math.max(System.currentTimeMillis() - EPOCH_MILLIS, lastTimestamp);
+
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                timestamp = lastTimestamp + 1;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    private static long nodeIdFromHostAddress() {
+        try {
+            for (NetworkInterface networkInterface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                if (!networkInterface.isUp() || networkInterface.isLoopback()) {
+                    continue;
+                }
+                for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
+                    if (address instanceof Inet4Address && address.isSiteLocalAddress()) {
+                        byte[] octets = address.getAddress();
+                        return (((octets[2] & 0xFF) << 8) | (octets[3] & 0xFF)) & MAX_NODE_ID;
+                    }
+                }
+            }
+        } catch (SocketException e) {
+            throw new IllegalStateException("booking-code.node-id is not set and the host address could not be read", e);
+        }
+        throw new IllegalStateException("booking-code.node-id is not set and the host has no site-local IPv4 address to derive it from");
+    }
+}
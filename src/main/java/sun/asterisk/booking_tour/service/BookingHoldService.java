@@ -0,0 +1,96 @@
+package sun.asterisk.booking_tour.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sun.asterisk.booking_tour.enums.BookingStatus;
+import sun.asterisk.booking_tour.enums.PaymentStatus;
+import sun.asterisk.booking_tour.repository.BookingRepository;
+import sun.asterisk.booking_tour.repository.PaymentRepository;
+import sun.asterisk.booking_tour.repository.TourDepartureRepository;
+
+/**
+ * Cancels PENDING bookings whose seat hold expired without payment and returns their seats.
+ *
+ * Each batch locks its rows with SKIP LOCKED, so several instances can sweep at once and
+ * bookings in the middle of a payment callback are left alone until the next run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingHoldService {
+
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final TourDepartureRepository tourDepartureRepository;
+    private final HotDepartureService hotDepartureService;
+    private final TourStatsService tourStatsService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${booking-hold.sweep-batch-size:200}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${booking-hold.sweep-interval-ms:60000}")
+    public void releaseExpiredHolds() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long totalReleased = 0;
+        int released;
+
+        do {
+            Map<Long, Integer> hotSeats = new HashMap<>();
+            Set<Long> tourIds = new HashSet<>();
+
+            Integer batch = transaction.execute(status -> releaseBatch(LocalDateTime.now(), hotSeats, tourIds));
+            released = batch != null ? batch : 0;
+            totalReleased += released;
+
+            // Redis counters are not part of the database transaction, so only touch them after commit
+            hotSeats.forEach(hotDepartureService::returnSeats);
+            tourIds.forEach(tourStatsService::onDeparturesChanged);
+        } while (released == batchSize);
+
+        if (totalReleased > 0) {
+            log.info("Released expired booking holds. bookings={}", totalReleased);
+        }
+    }
+
+    private int releaseBatch(LocalDateTime now, Map<Long, Integer> hotSeats, Set<Long> tourIds) {
+        List<Long> bookingIds = bookingRepository.lockExpiredHoldIds(now, batchSize);
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+
+        for (BookingRepository.DepartureSeats seats : bookingRepository.sumSeatsByDeparture(bookingIds)) {
+            Long departureId = seats.getDepartureId();
+            int count = seats.getSeats().intValue();
+
+            if (hotDepartureService.isHot(departureId)) {
+                hotSeats.merge(departureId, count, Integer::sum);
+            } else {
+                tourDepartureRepository.applyReservedSlots(departureId, -count);
+            }
+
+            Long tourId = tourDepartureRepository.findTourIdById(departureId);
+            if (tourId != null) {
+                tourIds.add(tourId);
+            }
+        }
+
+        bookingRepository.updateStatusByIds(bookingIds, BookingStatus.CANCELLED);
+        paymentRepository.updateStatusByBookingIds(bookingIds, PaymentStatus.PENDING, PaymentStatus.FAILED);
+
+        return bookingIds.size();
+    }
+}
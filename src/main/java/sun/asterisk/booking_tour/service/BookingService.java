@@ -2,14 +2,24 @@ package sun.asterisk.booking_tour.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
+import sun.asterisk.booking_tour.dto.booking.CreateBookingBatchRequest;
+import sun.asterisk.booking_tour.dto.booking.CreateBookingBatchResponse;
 import sun.asterisk.booking_tour.dto.booking.CreateBookingRequest;
 import sun.asterisk.booking_tour.dto.booking.CreateBookingResponse;
 import sun.asterisk.booking_tour.entity.Booking;
@@ -20,16 +30,22 @@ import sun.asterisk.booking_tour.exception.ResourceNotFoundException;
 import sun.asterisk.booking_tour.exception.ValidationException;
 import sun.asterisk.booking_tour.repository.BookingRepository;
 import sun.asterisk.booking_tour.repository.TourDepartureRepository;
+import sun.asterisk.booking_tour.repository.TourRepository;
 
 @Service
 @RequiredArgsConstructor
 public class BookingService {
 
-    private static final SecureRandom RANDOM = new SecureRandom();
-    private static final DateTimeFormatter CODE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-
     private final BookingRepository bookingRepository;
     private final TourDepartureRepository tourDepartureRepository;
+    private final TourRepository tourRepository;
+    private final TourStatsService tourStatsService;
+    private final TourDetailCacheService tourDetailCacheService;
+    private final HotDepartureService hotDepartureService;
+    private final BookingCodeGenerator bookingCodeGenerator;
+
+    @Value("${booking-hold.ttl-minutes:30}")
+    private long holdTtlMinutes;
 
     @Transactional
     public CreateBookingResponse createBooking(CreateBookingRequest request) {
@@ -41,13 +57,127 @@ public class BookingService {
         TourDeparture departure = tourDepartureRepository.findById(request.getTourDepartureId())
                 .orElseThrow(() -> new ResourceNotFoundException("Tour departure not found"));
 
-        if (departure.getAvailableSlots() == null || departure.getAvailableSlots() < totalPeople) {
-            throw new ValidationException("Not enough available slots");
+        Tour tour = departure.getTour();
+        if (hotDepartureService.isHot(departure.getId())) {
+            // Seats come from Redis; the reconciler applies them to the departure row in batches
+            hotDepartureService.reserve(departure.getId(), totalPeople);
+        } else {
+            reserveSlots(departure, tour, totalPeople);
         }
 
-        departure.setAvailableSlots(departure.getAvailableSlots() - totalPeople);
+        Booking booking = buildBooking(request, departure, tour);
+        bookingRepository.save(booking);
 
-        Tour tour = departure.getTour();
+        return CreateBookingResponse.builder()
+                .code(booking.getCode())
+                .status(booking.getStatus())
+                .finalTotal(booking.getFinalTotal())
+                .build();
+    }
+
+    /**
+     * Create many bookings in one transaction. Each departure is locked once (in id order,
+     * so concurrent batches cannot deadlock), seats are allocated line by line in memory and
+     * written back with one UPDATE per departure. Lines that cannot be booked are reported
+     * individually and do not fail the others.
+     */
+    @Transactional
+    public CreateBookingBatchResponse createBookings(CreateBookingBatchRequest request) {
+        List<CreateBookingRequest> lines = request.getBookings();
+
+        Set<Long> departureIds = lines.stream()
+                .map(CreateBookingRequest::getTourDepartureId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, TourDeparture> departures = tourDepartureRepository.findAllByIdForUpdate(departureIds).stream()
+                .collect(Collectors.toMap(TourDeparture::getId, Function.identity()));
+        // Load the tours in one query so departure.getTour() resolves from the persistence context
+        tourRepository.findAllById(departures.values().stream()
+                .map(departure -> departure.getTour().getId())
+                .collect(Collectors.toSet()));
+
+        Map<Long, Integer> remainingSlots = new HashMap<>();
+        departures.values().forEach(departure ->
+                remainingSlots.put(departure.getId(), safeInt(departure.getAvailableSlots())));
+        Map<Long, Integer> reservedSlots = new HashMap<>();
+
+        List<Booking> bookings = new ArrayList<>();
+        List<CreateBookingBatchResponse.LineResult> results = new ArrayList<>();
+
+        for (int index = 0; index < lines.size(); index++) {
+            CreateBookingRequest line = lines.get(index);
+            int totalPeople = safeInt(line.getNumAdults()) + safeInt(line.getNumChildren());
+            TourDeparture departure = departures.get(line.getTourDepartureId());
+
+            if (totalPeople <= 0) {
+                results.add(lineFailure(index, "Number of passengers must be greater than 0"));
+                continue;
+            }
+            if (departure == null) {
+                results.add(lineFailure(index, "Tour departure not found"));
+                continue;
+            }
+
+            if (hotDepartureService.isHot(departure.getId())) {
+                try {
+                    hotDepartureService.reserve(departure.getId(), totalPeople);
+                } catch (ValidationException e) {
+                    results.add(lineFailure(index, e.getMessage()));
+                    continue;
+                }
+            } else {
+                int remaining = remainingSlots.get(departure.getId());
+                if (remaining < totalPeople) {
+                    results.add(lineFailure(index, "Not enough available slots"));
+                    continue;
+                }
+                remainingSlots.put(departure.getId(), remaining - totalPeople);
+                reservedSlots.merge(departure.getId(), totalPeople, Integer::sum);
+            }
+
+            Booking booking = buildBooking(line, departure, departure.getTour());
+            bookings.add(booking);
+            results.add(CreateBookingBatchResponse.LineResult.builder()
+                    .index(index)
+                    .success(true)
+                    .code(booking.getCode())
+                    .status(booking.getStatus())
+                    .finalTotal(booking.getFinalTotal())
+                    .build());
+        }
+
+        // Rows are locked above, so the plain decrement cannot oversell
+        reservedSlots.forEach(tourDepartureRepository::applyReservedSlots);
+        bookingRepository.saveAll(bookings);
+
+        Set<Long> soldOutTourIds = new HashSet<>();
+        Set<String> changedSlugs = new HashSet<>();
+        reservedSlots.keySet().forEach(departureId -> {
+            Tour tour = departures.get(departureId).getTour();
+            if (remainingSlots.get(departureId) == 0) {
+                soldOutTourIds.add(tour.getId());
+            } else {
+                changedSlugs.add(tour.getSlug());
+            }
+        });
+        soldOutTourIds.forEach(tourStatsService::onDeparturesChanged);
+        changedSlugs.forEach(tourDetailCacheService::evictBySlug);
+
+        return CreateBookingBatchResponse.builder()
+                .succeeded(bookings.size())
+                .failed(lines.size() - bookings.size())
+                .results(results)
+                .build();
+    }
+
+    private CreateBookingBatchResponse.LineResult lineFailure(int index, String error) {
+        return CreateBookingBatchResponse.LineResult.builder()
+                .index(index)
+                .success(false)
+                .error(error)
+                .build();
+    }
+
+    private Booking buildBooking(CreateBookingRequest request, TourDeparture departure, Tour tour) {
         BigDecimal priceAdult = tour != null && tour.getPriceAdult() != null ? tour.getPriceAdult() : BigDecimal.ZERO;
         BigDecimal priceChild = tour != null && tour.getPriceChild() != null ? tour.getPriceChild() : BigDecimal.ZERO;
 
@@ -61,7 +191,7 @@ public class BookingService {
 
         Booking booking = new Booking();
         booking.setTourDeparture(departure);
-        booking.setCode(generateBookingCode());
+        booking.setCode(bookingCodeGenerator.nextCode());
         booking.setStatus(BookingStatus.PENDING);
         booking.setNumAdults(safeInt(request.getNumAdults()));
         booking.setNumChildren(safeInt(request.getNumChildren()));
@@ -72,31 +202,34 @@ public class BookingService {
         booking.setContactEmail(request.getContactEmail());
         booking.setContactPhone(request.getContactPhone());
         booking.setNotes(request.getNotes());
-
-        bookingRepository.save(booking);
-
-        return CreateBookingResponse.builder()
-                .code(booking.getCode())
-                .status(booking.getStatus())
-                .finalTotal(booking.getFinalTotal())
-                .build();
+        booking.setHoldExpiresAt(LocalDateTime.now().plusMinutes(holdTtlMinutes));
+        return booking;
     }
 
-    private String generateBookingCode() {
-        String code;
-        do {
-            String timestamp = LocalDateTime.now().format(CODE_DATE_FORMAT);
-            int suffix = RANDOM.nextInt(900000) + 100000;
-            code = "BK" + timestamp + suffix;
-        } while (bookingRepository.existsByCode(code));
-        return code;
+    private void reserveSlots(TourDeparture departure, Tour tour, int totalPeople) {
+        // Conditional decrement: the row lock serializes concurrent bookings of the same departure
+        if (tourDepartureRepository.reserveSlots(departure.getId(), totalPeople) == 0) {
+            throw new ValidationException("Not enough available slots");
+        }
+        if (tour == null) {
+            return;
+        }
+
+        Integer remainingSlots = tourDepartureRepository.findAvailableSlotsById(departure.getId());
+        if (remainingSlots != null && remainingSlots == 0) {
+            // Sold out departures drop out of the tour's next available date
+            tourStatsService.onDeparturesChanged(tour.getId());
+        } else {
+            // Detail pages show available slots per departure
+            tourDetailCacheService.evictBySlug(tour.getSlug());
+        }
     }
 
     private int safeInt(Integer value) {
         return value != null ? value : 0;
     }
 
-    private BigDecimal calculateDiscount(BigDecimal subTotal, BigDecimal discountRate) {
+    static BigDecimal calculateDiscount(BigDecimal subTotal, BigDecimal discountRate) {
         if (subTotal == null) {
             return BigDecimal.ZERO;
         }
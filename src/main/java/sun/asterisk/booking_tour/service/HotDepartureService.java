@@ -0,0 +1,322 @@
+package sun.asterisk.booking_tour.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sun.asterisk.booking_tour.exception.ValidationException;
+import sun.asterisk.booking_tour.repository.TourDepartureRepository;
+
+/**
+ * Redis-fronted seat inventory for flash-sale departures.
+ *
+ * For departures listed in hot-departures.departure-ids, bookings take seats from a Redis
+ * counter with a Lua script instead of updating the departure row. Each reservation is a
+ * hold with an expiry: just before the booking transaction commits it moves from the hold
+ * set to a confirmed set, where the expiry sweep cannot reach it, and it is dropped after
+ * commit. On rollback the seats are returned from whichever set holds it, and an unconfirmed
+ * hold is released once expired. A scheduled reconciler applies the accumulated
+ * seat delta to PostgreSQL in one UPDATE per departure.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotDepartureService {
+
+    private static final String STOCK_PREFIX = "hot-departure:stock:";
+    private static final String PENDING_PREFIX = "hot-departure:pending:";
+    private static final String HOLDS_PREFIX = "hot-departure:holds:";
+    private static final String CONFIRMED_PREFIX = "hot-departure:confirmed:";
+
+    private static final long NOT_INITIALIZED = -1L;
+    private static final long NOT_ENOUGH_SLOTS = -2L;
+
+    // KEYS: stock, pending, holds  ARGV: count, hold member, hold expiry (epoch millis)
+    private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "local stock = redis.call('GET', KEYS[1]) "
+                    + "if not stock then return -1 end "
+                    + "local count = tonumber(ARGV[1]) "
+                    + "if tonumber(stock) < count then return -2 end "
+                    + "redis.call('DECRBY', KEYS[1], count) "
+                    + "redis.call('INCRBY', KEYS[2], count) "
+                    + "redis.call('ZADD', KEYS[3], ARGV[3], ARGV[2]) "
+                    + "return tonumber(stock) - count",
+            Long.class
+    );
+
+    // KEYS: stock, pending, holds  ARGV: hold member, count
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('ZREM', KEYS[3], ARGV[1]) == 0 then return 0 end "
+                    + "redis.call('INCRBY', KEYS[1], ARGV[2]) "
+                    + "redis.call('DECRBY', KEYS[2], ARGV[2]) "
+                    + "return 1",
+            Long.class
+    );
+
+    // KEYS: holds, confirmed  ARGV: hold member
+    private static final RedisScript<Long> CONFIRM_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 then return 0 end "
+                    + "redis.call('SADD', KEYS[2], ARGV[1]) "
+                    + "return 1",
+            Long.class
+    );
+
+    // KEYS: stock, pending, holds, confirmed  ARGV: hold member, count
+    private static final RedisScript<Long> ROLLBACK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('ZREM', KEYS[3], ARGV[1]) == 0 "
+                    + "and redis.call('SREM', KEYS[4], ARGV[1]) == 0 then return 0 end "
+                    + "redis.call('INCRBY', KEYS[1], ARGV[2]) "
+                    + "redis.call('DECRBY', KEYS[2], ARGV[2]) "
+                    + "return 1",
+            Long.class
+    );
+
+    // KEYS: stock, pending  ARGV: count
+    private static final RedisScript<Long> RETURN_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "redis.call('INCRBY', KEYS[1], ARGV[1]) "
+                    + "redis.call('DECRBY', KEYS[2], ARGV[1]) "
+                    + "return 1",
+            Long.class
+    );
+
+    // KEYS: pending
+    private static final RedisScript<Long> TAKE_PENDING_SCRIPT = new DefaultRedisScript<>(
+            "local pending = tonumber(redis.call('GET', KEYS[1]) or '0') "
+                    + "if pending ~= 0 then redis.call('DECRBY', KEYS[1], pending) end "
+                    + "return pending",
+            Long.class
+    );
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TourDepartureRepository tourDepartureRepository;
+    private final TourStatsService tourStatsService;
+    private final TourDetailCacheService tourDetailCacheService;
+
+    @Value("${hot-departures.enabled:false}")
+    private boolean enabled;
+
+    @Value("${hot-departures.departure-ids:}")
+    private String departureIdsConfig;
+
+    @Value("${hot-departures.hold-ttl-seconds:120}")
+    private long holdTtlSeconds;
+
+    private Set<Long> hotDepartureIds = Set.of();
+
+    @PostConstruct
+    void init() {
+        hotDepartureIds = Arrays.stream(departureIdsConfig.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(Long::valueOf)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean isHot(Long departureId) {
+        return enabled && hotDepartureIds.contains(departureId);
+    }
+
+    /**
+     * Take seats from the Redis counter inside the current booking transaction.
+     * The hold is confirmed before commit and released if the transaction rolls back.
+     */
+    public void reserve(Long departureId, int count) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Hot departure reservations require an active transaction");
+        }
+
+        String member = UUID.randomUUID() + ":" + count;
+        long expiresAt = System.currentTimeMillis() + holdTtlSeconds * 1000;
+
+        Long result = runReserve(departureId, count, member, expiresAt);
+        if (result != null && result == NOT_INITIALIZED) {
+            seedStock(departureId);
+            result = runReserve(departureId, count, member, expiresAt);
+        }
+        if (result == null || result < 0) {
+            throw new ValidationException("Not enough available slots");
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // A hold that already expired has given its seats back, so the booking must not commit
+                Long confirmed = redisTemplate.execute(
+                        CONFIRM_SCRIPT,
+                        List.of(holdsKey(departureId), confirmedKey(departureId)),
+                        member
+                );
+                if (confirmed == null || confirmed == 0) {
+                    throw new ValidationException("Seat reservation expired, please try again");
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    forgetConfirmed(departureId, member);
+                } else {
+                    rollback(departureId, member, count);
+                }
+            }
+        });
+    }
+
+    /**
+     * Give back seats of committed bookings that were cancelled, e.g. unpaid after their hold
+     * deadline. Goes through the departure row when the Redis counter was never seeded.
+     */
+    public void returnSeats(Long departureId, int count) {
+        Long returned = redisTemplate.execute(
+                RETURN_SCRIPT,
+                List.of(stockKey(departureId), pendingKey(departureId)),
+                String.valueOf(count)
+        );
+        if (returned == null || returned == 0) {
+            tourDepartureRepository.applyReservedSlots(departureId, -count);
+        }
+    }
+
+    /**
+     * Release expired holds and push the accumulated seat delta of each hot departure to the database
+     */
+    @Scheduled(fixedDelayString = "${hot-departures.reconcile-interval-ms:1000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        for (Long departureId : hotDepartureIds) {
+            try {
+                releaseExpiredHolds(departureId);
+                flushPending(departureId);
+            } catch (Exception e) {
+                log.error("Hot departure reconcile failed. departureId={}", departureId, e);
+            }
+        }
+    }
+
+    private Long runReserve(Long departureId, int count, String member, long expiresAt) {
+        return redisTemplate.execute(
+                RESERVE_SCRIPT,
+                keys(departureId),
+                String.valueOf(count),
+                member,
+                String.valueOf(expiresAt)
+        );
+    }
+
+    private void seedStock(Long departureId) {
+        Integer availableSlots = tourDepartureRepository.findAvailableSlotsById(departureId);
+        if (availableSlots == null) {
+            return;
+        }
+        redisTemplate.opsForValue().setIfAbsent(stockKey(departureId), String.valueOf(availableSlots));
+    }
+
+    private void release(Long departureId, String member, int count) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, keys(departureId), member, String.valueOf(count));
+        } catch (Exception e) {
+            log.error("Failed to release hot departure hold. departureId={}, hold={}", departureId, member, e);
+        }
+    }
+
+    private void rollback(Long departureId, String member, int count) {
+        try {
+            redisTemplate.execute(
+                    ROLLBACK_SCRIPT,
+                    List.of(stockKey(departureId), pendingKey(departureId), holdsKey(departureId), confirmedKey(departureId)),
+                    member,
+                    String.valueOf(count)
+            );
+        } catch (Exception e) {
+            log.error("Failed to roll back hot departure hold. departureId={}, hold={}", departureId, member, e);
+        }
+    }
+
+    private void forgetConfirmed(Long departureId, String member) {
+        try {
+            redisTemplate.opsForSet().remove(confirmedKey(departureId), member);
+        } catch (Exception e) {
+            // Only leaves a stale member behind; the seats are already accounted for
+            log.warn("Failed to clear confirmed hot departure hold. departureId={}, hold={}", departureId, member);
+        }
+    }
+
+    private void releaseExpiredHolds(Long departureId) {
+        Set<String> expired = redisTemplate.opsForZSet()
+                .rangeByScore(holdsKey(departureId), 0, System.currentTimeMillis());
+        if (expired == null) {
+            return;
+        }
+
+        for (String member : expired) {
+            int count = Integer.parseInt(member.substring(member.lastIndexOf(':') + 1));
+            release(departureId, member, count);
+        }
+    }
+
+    private void flushPending(Long departureId) {
+        Long delta = redisTemplate.execute(TAKE_PENDING_SCRIPT, List.of(pendingKey(departureId)));
+        if (delta == null || delta == 0) {
+            return;
+        }
+
+        try {
+            tourDepartureRepository.applyReservedSlots(departureId, delta.intValue());
+        } catch (RuntimeException e) {
+            // Put the delta back for the next run
+            redisTemplate.opsForValue().increment(pendingKey(departureId), delta);
+            throw e;
+        }
+
+        Long tourId = tourDepartureRepository.findTourIdById(departureId);
+        if (tourId == null) {
+            return;
+        }
+
+        String stock = redisTemplate.opsForValue().get(stockKey(departureId));
+        if ("0".equals(stock)) {
+            tourStatsService.onDeparturesChanged(tourId);
+        } else {
+            tourDetailCacheService.evict(tourId);
+        }
+        log.debug("Reconciled hot departure. departureId={}, seats={}", departureId, delta);
+    }
+
+    private List<String> keys(Long departureId) {
+        return List.of(stockKey(departureId), pendingKey(departureId), holdsKey(departureId));
+    }
+
+    private String stockKey(Long departureId) {
+        return STOCK_PREFIX + departureId;
+    }
+
+    private String pendingKey(Long departureId) {
+        return PENDING_PREFIX + departureId;
+    }
+
+    private String holdsKey(Long departureId) {
+        return HOLDS_PREFIX + departureId;
+    }
+
+    private String confirmedKey(Long departureId) {
+        return CONFIRMED_PREFIX + departureId;
+    }
+}
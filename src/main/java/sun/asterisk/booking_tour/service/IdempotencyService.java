@@ -0,0 +1,154 @@
+package sun.asterisk.booking_tour.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import sun.asterisk.booking_tour.exception.ConflictException;
+import sun.asterisk.booking_tour.exception.ValidationException;
+
+/**
+ * Idempotency-Key support for non-idempotent POST endpoints.
+ *
+ * The first request with a key claims it in Redis and runs. Its successful response is
+ * stored for the replay window, and later requests with the same key and the same body
+ * get that response back without running again. A failed request releases the key so
+ * the client can retry, but only while the key still holds its own claim: once the claim
+ * has expired and another request has taken the key, that request's claim is left alone.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String STATUS_IN_PROGRESS = "IN_PROGRESS";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Delete the key only if it still holds this request's claim
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end "
+                    + "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    // Must outlast the slowest guarded action, a batch booking with its Stripe checkout
+    @Value("${idempotency.in-progress-ttl-seconds:300}")
+    private long inProgressTtlSeconds;
+
+    /**
+     * Run {@code action} once per (scope, user, idempotency key); without a key it simply
+     * runs. Keys are per user, so one client cannot replay another's response by reusing
+     * its key.
+     */
+    public <T> T execute(String scope, Long userId, String idempotencyKey, Object request, Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String key = KEY_PREFIX + scope + ":" + userId + ":" + idempotencyKey;
+        String requestHash = hash(request);
+
+        IdempotencyRecord claim = new IdempotencyRecord();
+        claim.setStatus(STATUS_IN_PROGRESS);
+        claim.setRequestHash(requestHash);
+        claim.setClaimToken(UUID.randomUUID().toString());
+        String claimJson = toJson(claim);
+
+        Boolean claimed = redisTemplate.opsForValue()
+                .setIfAbsent(key, claimJson, inProgressTtlSeconds, TimeUnit.SECONDS);
+        if (!Boolean.TRUE.equals(claimed)) {
+            return replay(key, requestHash, responseType);
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key), claimJson);
+            throw e;
+        }
+
+        IdempotencyRecord completed = new IdempotencyRecord();
+        completed.setStatus(STATUS_COMPLETED);
+        completed.setRequestHash(requestHash);
+        completed.setResponse(toJson(response));
+        redisTemplate.opsForValue().set(key, toJson(completed), ttlSeconds, TimeUnit.SECONDS);
+
+        return response;
+    }
+
+    private <T> T replay(String key, String requestHash, Class<T> responseType) {
+        String json = redisTemplate.opsForValue().get(key);
+        if (json == null) {
+            throw new ConflictException("Request with this Idempotency-Key is being processed, please retry");
+        }
+
+        IdempotencyRecord record = fromJson(json, IdempotencyRecord.class);
+        if (!requestHash.equals(record.getRequestHash())) {
+            throw new ValidationException("Idempotency-Key was already used with a different request");
+        }
+        if (!STATUS_COMPLETED.equals(record.getStatus())) {
+            throw new ConflictException("Request with this Idempotency-Key is being processed, please retry");
+        }
+
+        log.debug("Replaying idempotent response. key={}", key);
+        return fromJson(record.getResponse(), responseType);
+    }
+
+    private String hash(Object request) {
+        return DigestUtils.md5DigestAsHex(toJson(request).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotency record", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read idempotency record", e);
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class IdempotencyRecord {
+        private String status;
+        private String requestHash;
+        private String claimToken;
+        private String response;
+    }
+}
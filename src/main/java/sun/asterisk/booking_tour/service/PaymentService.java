@@ -2,6 +2,7 @@ package sun.asterisk.booking_tour.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 import com.stripe.Stripe;
 import com.stripe.model.checkout.Session;
@@ -9,6 +10,7 @@ import com.stripe.param.checkout.SessionCreateParams;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,12 +26,19 @@ import sun.asterisk.booking_tour.exception.ResourceNotFoundException;
 import sun.asterisk.booking_tour.exception.ValidationException;
 import sun.asterisk.booking_tour.repository.BookingRepository;
 import sun.asterisk.booking_tour.repository.PaymentRepository;
+import sun.asterisk.booking_tour.repository.TourDepartureRepository;
 
 @Service
 public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
 
+    // Stripe accepts checkout session expiries between 30 minutes and 24 hours, measured from
+    // when it creates the session, so the expiry is padded past the floor
+    private static final long MIN_CHECKOUT_TTL_MINUTES = 30;
+    private static final long CHECKOUT_EXPIRY_MARGIN_SECONDS = 60;
+    private static final long HOLD_GRACE_MINUTES = 5;
+
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
 
@@ -37,15 +46,28 @@ public class PaymentService {
 
     private final EmailQueueService emailQueueService;
 
+    private final TourDepartureRepository tourDepartureRepository;
+    private final HotDepartureService hotDepartureService;
+    private final TourStatsService tourStatsService;
+
+    @Value("${booking-hold.checkout-ttl-minutes:30}")
+    private long checkoutTtlMinutes;
+
     public PaymentService(
             BookingRepository bookingRepository,
             PaymentRepository paymentRepository,
             StripeProperties stripeProperties,
-            EmailQueueService emailQueueService) {
+            EmailQueueService emailQueueService,
+            TourDepartureRepository tourDepartureRepository,
+            HotDepartureService hotDepartureService,
+            TourStatsService tourStatsService) {
         this.bookingRepository = bookingRepository;
         this.paymentRepository = paymentRepository;
         this.stripeProperties = stripeProperties;
         this.emailQueueService = emailQueueService;
+        this.tourDepartureRepository = tourDepartureRepository;
+        this.hotDepartureService = hotDepartureService;
+        this.tourStatsService = tourStatsService;
     }
 
     @Transactional
@@ -69,11 +91,23 @@ public class PaymentService {
             throw new ValidationException("Invalid booking amount");
         }
 
+        LocalDateTime now = LocalDateTime.now();
+        if (booking.getStatus() != BookingStatus.PENDING
+                || (booking.getHoldExpiresAt() != null && !booking.getHoldExpiresAt().isAfter(now))) {
+            throw new ValidationException("Booking is no longer awaiting payment");
+        }
+
+        LocalDateTime sessionExpiresAt = now
+                .plusMinutes(Math.max(checkoutTtlMinutes, MIN_CHECKOUT_TTL_MINUTES))
+                .plusSeconds(CHECKOUT_EXPIRY_MARGIN_SECONDS);
+
+        Session session;
         try {
             SessionCreateParams params = SessionCreateParams.builder()
                     .setMode(SessionCreateParams.Mode.PAYMENT)
                     .setSuccessUrl(stripeProperties.getSuccessUrl())
                     .setCancelUrl(stripeProperties.getCancelUrl())
+                    .setExpiresAt(sessionExpiresAt.atZone(ZoneId.systemDefault()).toEpochSecond())
                     .addLineItem(
                             SessionCreateParams.LineItem.builder()
                                     .setQuantity(1L)
@@ -89,22 +123,49 @@ public class PaymentService {
                                     .build())
                     .putMetadata("bookingCode", booking.getCode())
                     .build();
-            Session session = Session.create(params);
-
-            Payment payment = new Payment();
-            payment.setBooking(booking);
-            payment.setAmount(amount);
-            payment.setPaymentMethod(PaymentMethod.STRIPE);
-            payment.setTransactionId(session.getId());
-            payment.setStatus(PaymentStatus.PENDING);
-            paymentRepository.save(payment);
-
-            return new StripeCheckoutResponse(session.getId(), session.getUrl());
+            session = Session.create(params);
         } catch (Exception ex) {
             throw new IllegalStateException("Failed to create Stripe checkout session", ex);
         }
+
+        // Keep the seats held until the checkout session can no longer be paid. Only done once
+        // the session exists; if the hold lapsed meanwhile, the session is closed again.
+        int extended = bookingRepository.extendHold(
+                booking.getId(),
+                BookingStatus.PENDING,
+                LocalDateTime.now(),
+                sessionExpiresAt.plusMinutes(HOLD_GRACE_MINUTES)
+        );
+        if (extended == 0) {
+            expireQuietly(session);
+            throw new ValidationException("Booking is no longer awaiting payment");
+        }
+
+        Payment payment = new Payment();
+        payment.setBooking(booking);
+        payment.setAmount(amount);
+        payment.setPaymentMethod(PaymentMethod.STRIPE);
+        payment.setTransactionId(session.getId());
+        payment.setStatus(PaymentStatus.PENDING);
+        paymentRepository.save(payment);
+
+        return new StripeCheckoutResponse(session.getId(), session.getUrl());
     }
 
+    private void expireQuietly(Session session) {
+        try {
+            session.expire();
+        } catch (Exception ex) {
+            logger.warn("Failed to expire Stripe checkout session {}: {}", session.getId(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Record the outcome of a checkout session. The booking is locked like the hold sweeper
+     * locks it, so the two never act on it at once, and only a PENDING booking becomes PAID.
+     * A booking the sweeper already cancelled gets its seats back if they are still free;
+     * otherwise it stays cancelled and the payment is marked REFUND_REQUIRED.
+     */
     @Transactional
     public StripePaymentStatusResponse handleStripeSuccess(String sessionId) {
         if (sessionId == null || sessionId.isBlank()) {
@@ -116,48 +177,96 @@ public class PaymentService {
 
         Stripe.apiKey = stripeProperties.getSecretKey();
 
+        // Ask Stripe before taking any row lock
+        Session session;
         try {
-            Session session = Session.retrieve(sessionId);
-            Payment payment = paymentRepository.findByTransactionId(sessionId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
+            session = Session.retrieve(sessionId);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Failed to verify Stripe session", ex);
+        }
 
-            if (payment.getStatus() == PaymentStatus.COMPLETED) {
-                return new StripePaymentStatusResponse(true, "Payment already completed",
-                        payment.getBooking() != null ? payment.getBooking().getCode() : null, sessionId);
-            }
+        // Booking row first, then the payment, in the sweeper's lock order
+        Long bookingId = paymentRepository.findBookingIdByTransactionId(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
+        Payment payment = paymentRepository.findByTransactionId(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
 
-            boolean paid = "paid".equalsIgnoreCase(session.getPaymentStatus());
-            if (!paid) {
-                payment.setStatus(PaymentStatus.FAILED);
-                paymentRepository.save(payment);
-                return new StripePaymentStatusResponse(false, "Payment not completed",
-                        payment.getBooking() != null ? payment.getBooking().getCode() : null, sessionId);
-            }
+        if (payment.getStatus() == PaymentStatus.COMPLETED || payment.getStatus() == PaymentStatus.REFUND_REQUIRED) {
+            boolean kept = payment.getStatus() == PaymentStatus.COMPLETED;
+            return new StripePaymentStatusResponse(kept,
+                    kept ? "Payment already completed" : "Booking expired before payment, the payment will be refunded",
+                    booking.getCode(), sessionId);
+        }
+
+        boolean paid = "paid".equalsIgnoreCase(session.getPaymentStatus());
+        if (!paid) {
+            payment.setStatus(PaymentStatus.FAILED);
+            paymentRepository.save(payment);
+            return new StripePaymentStatusResponse(false, "Payment not completed", booking.getCode(), sessionId);
+        }
+
+        payment.setPaymentDate(LocalDateTime.now());
 
-            payment.setStatus(PaymentStatus.COMPLETED);
-            payment.setPaymentDate(LocalDateTime.now());
+        if (booking.getStatus() == BookingStatus.CANCELLED && !reclaimSeats(booking)) {
+            payment.setStatus(PaymentStatus.REFUND_REQUIRED);
             paymentRepository.save(payment);
+            logger.error("Payment received for a booking whose hold was released and whose seats are gone, refund required. "
+                    + "bookingCode={}, sessionId={}", booking.getCode(), sessionId);
+            return new StripePaymentStatusResponse(false,
+                    "Booking expired before payment, the payment will be refunded", booking.getCode(), sessionId);
+        }
+
+        payment.setStatus(PaymentStatus.COMPLETED);
+        paymentRepository.save(payment);
 
-            Booking booking = payment.getBooking();
-            if (booking != null) {
-                booking.setStatus(BookingStatus.PAID);
-                bookingRepository.save(booking);
-
-                String bookingCode = booking.getCode();
-                String toEmail = booking.getContactEmail();
-                try {
-                    emailQueueService.enqueueBookingPaymentSuccess(booking);
-                    logger.warn("Enqueued payment success email job. bookingCode={}, to={}", bookingCode, toEmail);
-                } catch (Exception e) {
-                    logger.error("Failed to enqueue payment success email job. bookingCode={}, to={}", bookingCode, toEmail, e);
-                }
+        if (booking.getStatus() != BookingStatus.PENDING && booking.getStatus() != BookingStatus.CANCELLED) {
+            logger.warn("Payment completed for a booking that is not awaiting payment. bookingCode={}, status={}",
+                    booking.getCode(), booking.getStatus());
+            return new StripePaymentStatusResponse(true, "Payment success", booking.getCode(), sessionId);
+        }
+
+        booking.setStatus(BookingStatus.PAID);
+        bookingRepository.save(booking);
+
+        String bookingCode = booking.getCode();
+        String toEmail = booking.getContactEmail();
+        try {
+            emailQueueService.enqueueBookingPaymentSuccess(booking);
+            logger.warn("Enqueued payment success email job. bookingCode={}, to={}", bookingCode, toEmail);
+        } catch (Exception e) {
+            logger.error("Failed to enqueue payment success email job. bookingCode={}, to={}", bookingCode, toEmail, e);
+        }
+
+        return new StripePaymentStatusResponse(true, "Payment success", bookingCode, sessionId);
+    }
+
+    /**
+     * Take the seats of a booking cancelled by the hold sweeper again, only if the departure
+     * still has them. Returns false when it does not.
+     */
+    private boolean reclaimSeats(Booking booking) {
+        Long departureId = booking.getTourDeparture().getId();
+        int seats = booking.getNumAdults() + booking.getNumChildren();
+
+        if (hotDepartureService.isHot(departureId)) {
+            try {
+                hotDepartureService.reserve(departureId, seats);
+            } catch (ValidationException e) {
+                return false;
             }
+        } else if (tourDepartureRepository.reserveSlots(departureId, seats) == 0) {
+            return false;
+        }
 
-            return new StripePaymentStatusResponse(true, "Payment success",
-                    booking != null ? booking.getCode() : null, sessionId);
-        } catch (Exception ex) {
-            throw new IllegalStateException("Failed to verify Stripe session", ex);
+        logger.warn("Re-reserved seats of a booking paid after its hold was released. bookingCode={}, seats={}",
+                booking.getCode(), seats);
+        Long tourId = tourDepartureRepository.findTourIdById(departureId);
+        if (tourId != null) {
+            tourStatsService.onDeparturesChanged(tourId);
         }
+        return true;
     }
 
     @Transactional
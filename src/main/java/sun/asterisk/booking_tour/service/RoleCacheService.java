@@ -0,0 +1,37 @@
+package sun.asterisk.booking_tour.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import sun.asterisk.booking_tour.entity.Role;
+import sun.asterisk.booking_tour.repository.RoleRepository;
+
+/**
+ * Roles by name, read from the database once per name. Roles are seeded at startup and
+ * never renamed or removed at runtime, so a cached entry cannot go stale. Lookups that
+ * find nothing are not cached, so a role seeded later is still picked up.
+ *
+ * The cached entities are detached: read their id and name, do not modify them.
+ */
+@Service
+@RequiredArgsConstructor
+public class RoleCacheService {
+
+    private final RoleRepository roleRepository;
+    private final Map<String, Role> rolesByName = new ConcurrentHashMap<>();
+
+    public Optional<Role> findByName(String name) {
+        Role role = rolesByName.get(name);
+        if (role == null) {
+            role = roleRepository.findByName(name).orElse(null);
+            if (role != null) {
+                rolesByName.putIfAbsent(name, role);
+            }
+        }
+        return Optional.ofNullable(role);
+    }
+}
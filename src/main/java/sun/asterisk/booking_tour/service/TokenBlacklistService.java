@@ -1,15 +1,35 @@
 package sun.asterisk.booking_tour.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import sun.asterisk.booking_tour.cache.BloomFilter;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Revoked access tokens, keyed by the token key in the JWT payload.
+ *
+ * Redis stays the source of truth. Each node keeps a Bloom filter of revoked keys in
+ * front of it, so the common case (token not revoked) is answered without a Redis
+ * round trip and only probable hits are confirmed with EXISTS. Revocations reach other
+ * nodes over pub/sub; every node also rebuilds its filter from a Redis sorted-set
+ * index of live revocations on a fixed interval, which lets expired entries age out
+ * and bounds how long a missed message can go unnoticed. Until the first rebuild
+ * completes every check goes to Redis.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -17,7 +37,38 @@ public class TokenBlacklistService {
 
     private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistService.class);
     private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
     private static final String BLACKLIST_PREFIX = "token:blacklist:";
+    private static final String INDEX_KEY = "token:blacklist:index";
+    private static final String REVOKED_CHANNEL = "token:blacklist:revoked";
+
+    @Value("${token-blacklist.filter.enabled:true}")
+    private boolean filterEnabled;
+
+    @Value("${token-blacklist.filter.expected-revocations:100000}")
+    private long expectedRevocations;
+
+    @Value("${token-blacklist.filter.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private final Object filterLock = new Object();
+
+    // Null until the first rebuild; reads are lock-free
+    private volatile BloomFilter filter;
+
+    // Filter being rebuilt, if any; revocations seen meanwhile go into both (guarded by filterLock)
+    private BloomFilter rebuilding;
+
+    @PostConstruct
+    void init() {
+        if (!filterEnabled) {
+            return;
+        }
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> addToFilter(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(REVOKED_CHANNEL)
+        );
+    }
 
     /**
      * Add token to blacklist with TTL
@@ -28,6 +79,17 @@ public class TokenBlacklistService {
     public void blacklistToken(String tokenKey, long ttlSeconds) {
         String key = BLACKLIST_PREFIX + tokenKey;
         redisTemplate.opsForValue().set(key, "revoked", ttlSeconds, TimeUnit.SECONDS);
+
+        // Index before publishing, so a node that misses the message finds it on its next rebuild
+        long expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds);
+        redisTemplate.opsForZSet().add(INDEX_KEY, tokenKey, expiresAt);
+        addToFilter(tokenKey);
+        try {
+            redisTemplate.convertAndSend(REVOKED_CHANNEL, tokenKey);
+        } catch (Exception e) {
+            logger.warn("Failed to publish token revocation, other nodes pick it up on resync: {}", e.getMessage());
+        }
+
         logger.info("Token blacklisted: {} for {} seconds", tokenKey, ttlSeconds);
     }
 
@@ -38,6 +100,11 @@ public class TokenBlacklistService {
      * @return true if blacklisted, false otherwise
      */
     public boolean isBlacklisted(String tokenKey) {
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(tokenKey)) {
+            return false;
+        }
+
         String key = BLACKLIST_PREFIX + tokenKey;
         Boolean exists = redisTemplate.hasKey(key);
         return Boolean.TRUE.equals(exists);
@@ -51,6 +118,59 @@ public class TokenBlacklistService {
     public void removeFromBlacklist(String tokenKey) {
         String key = BLACKLIST_PREFIX + tokenKey;
         redisTemplate.delete(key);
+        redisTemplate.opsForZSet().remove(INDEX_KEY, tokenKey);
         logger.info("Token removed from blacklist: {}", tokenKey);
     }
+
+    /**
+     * Rebuild the local filter from the live revocations in the Redis index. On failure
+     * the previous filter stays in place.
+     */
+    @Scheduled(fixedDelayString = "${token-blacklist.filter.resync-interval-ms:30000}")
+    public void rebuildFilter() {
+        if (!filterEnabled) {
+            return;
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().removeRangeByScore(INDEX_KEY, Double.NEGATIVE_INFINITY, now);
+            Long live = redisTemplate.opsForZSet().zCard(INDEX_KEY);
+
+            BloomFilter next = new BloomFilter(
+                    Math.max(expectedRevocations, 2 * (live != null ? live : 0)),
+                    falsePositiveRate
+            );
+            synchronized (filterLock) {
+                rebuilding = next;
+            }
+
+            Set<String> tokenKeys = redisTemplate.opsForZSet().rangeByScore(INDEX_KEY, now, Double.POSITIVE_INFINITY);
+            if (tokenKeys != null) {
+                tokenKeys.forEach(next::put);
+            }
+
+            synchronized (filterLock) {
+                filter = next;
+                rebuilding = null;
+            }
+            logger.debug("Rebuilt token blacklist filter. revocations={}", tokenKeys != null ? tokenKeys.size() : 0);
+        } catch (Exception e) {
+            synchronized (filterLock) {
+                rebuilding = null;
+            }
+            logger.warn("Failed to rebuild token blacklist filter: {}", e.getMessage());
+        }
+    }
+
+    private void addToFilter(String tokenKey) {
+        synchronized (filterLock) {
+            if (filter != null) {
+                filter.put(tokenKey);
+            }
+            if (rebuilding != null) {
+                rebuilding.put(tokenKey);
+            }
+        }
+    }
 }
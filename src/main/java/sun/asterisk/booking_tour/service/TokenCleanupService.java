@@ -0,0 +1,49 @@
+package sun.asterisk.booking_tour.service;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sun.asterisk.booking_tour.repository.TokenRepository;
+
+/**
+ * Deletes token rows whose refresh token has expired.
+ *
+ * Rows go in small batches, each in its own transaction, so a large backlog never holds
+ * locks for long; SKIP LOCKED lets several instances purge at once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenCleanupService {
+
+    private final TokenRepository tokenRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${token-cleanup.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${token-cleanup.interval-ms:3600000}")
+    public void purgeExpiredTokens() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        long totalDeleted = 0;
+        int deleted;
+
+        do {
+            Integer batch = transaction.execute(status -> tokenRepository.deleteExpiredBatch(now, batchSize));
+            deleted = batch != null ? batch : 0;
+            totalDeleted += deleted;
+        } while (deleted == batchSize);
+
+        if (totalDeleted > 0) {
+            log.info("Purged expired tokens. tokens={}", totalDeleted);
+        }
+    }
+}
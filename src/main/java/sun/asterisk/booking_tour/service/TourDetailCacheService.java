@@ -0,0 +1,133 @@
+package sun.asterisk.booking_tour.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sun.asterisk.booking_tour.cache.LocalTtlCache;
+import sun.asterisk.booking_tour.dto.tour.TourDetailResponse;
+import sun.asterisk.booking_tour.repository.TourRepository;
+
+/**
+ * Two-level read-through cache for tour detail responses keyed by slug.
+ *
+ * L1 is a short-lived in-process cache, L2 is Redis. Evictions delete the Redis entry
+ * after the surrounding transaction commits and are broadcast on a pub/sub channel so
+ * every instance drops its L1 copy.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TourDetailCacheService {
+
+    private static final String KEY_PREFIX = "tour:detail:";
+    private static final String INVALIDATION_CHANNEL = "tour:detail:invalidate";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final ObjectMapper objectMapper;
+    private final TourRepository tourRepository;
+
+    @Value("${tour-detail-cache.local-max-size:1000}")
+    private int localMaxSize;
+
+    @Value("${tour-detail-cache.local-ttl-seconds:30}")
+    private long localTtlSeconds;
+
+    @Value("${tour-detail-cache.redis-ttl-seconds:600}")
+    private long redisTtlSeconds;
+
+    private LocalTtlCache<String, TourDetailResponse> localCache;
+
+    @PostConstruct
+    void init() {
+        localCache = new LocalTtlCache<>(localMaxSize, TimeUnit.SECONDS.toMillis(localTtlSeconds));
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> localCache.invalidate(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL)
+        );
+    }
+
+    public TourDetailResponse get(String slug, Supplier<TourDetailResponse> loader) {
+        return localCache.get(slug, key -> {
+            TourDetailResponse cached = readRedis(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            TourDetailResponse loaded = loader.get();
+            writeRedis(key, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * Evict the tour's detail once the current transaction commits (immediately if none)
+     */
+    public void evict(Long tourId) {
+        tourRepository.findSlugById(tourId).ifPresent(this::evictBySlug);
+    }
+
+    public void evictBySlug(String slug) {
+        afterCommit(() -> evictNow(slug));
+    }
+
+    private void evictNow(String slug) {
+        localCache.invalidate(slug);
+        try {
+            redisTemplate.delete(KEY_PREFIX + slug);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, slug);
+        } catch (Exception e) {
+            log.warn("Failed to evict tour detail cache. slug={}, error={}", slug, e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private TourDetailResponse readRedis(String slug) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + slug);
+            return json != null ? objectMapper.readValue(json, TourDetailResponse.class) : null;
+        } catch (Exception e) {
+            log.warn("Failed to read tour detail cache. slug={}, error={}", slug, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String slug, TourDetailResponse response) {
+        try {
+            redisTemplate.opsForValue().set(
+                    KEY_PREFIX + slug,
+                    objectMapper.writeValueAsString(response),
+                    redisTtlSeconds,
+                    TimeUnit.SECONDS
+            );
+        } catch (Exception e) {
+            log.warn("Failed to write tour detail cache. slug={}, error={}", slug, e.getMessage());
+        }
+    }
+}
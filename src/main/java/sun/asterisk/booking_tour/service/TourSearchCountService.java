@@ -0,0 +1,135 @@
+package sun.asterisk.booking_tour.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sun.asterisk.booking_tour.dto.tour.TourSearchRequest;
+import sun.asterisk.booking_tour.entity.Tour;
+import sun.asterisk.booking_tour.enums.SearchCountMode;
+import sun.asterisk.booking_tour.exception.ValidationException;
+import sun.asterisk.booking_tour.repository.TourRepository;
+
+/**
+ * Total counts for offset-paged tour search.
+ *
+ * EXACT runs a full COUNT, CACHED keeps that count in Redis per normalized filter set
+ * for a short TTL, and ESTIMATED stops counting at a cap and reports e.g. "1000+".
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TourSearchCountService {
+
+    private static final String COUNT_CACHE_PREFIX = "tour-search:count:";
+
+    private final TourRepository tourRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${tour-search.count-mode:exact}")
+    private String defaultCountMode;
+
+    @Value("${tour-search.count-cache-ttl-seconds:60}")
+    private long countCacheTtlSeconds;
+
+    @Value("${tour-search.count-estimate-cap:1000}")
+    private long countEstimateCap;
+
+    @Getter
+    @AllArgsConstructor
+    public static class TourCount {
+        private final long total;
+        /** True when total is a lower bound rather than the exact count */
+        private final boolean approximate;
+    }
+
+    public TourCount count(Specification<Tour> spec, TourSearchRequest request) {
+        return switch (resolveMode(request)) {
+            case EXACT -> new TourCount(tourRepository.count(spec), false);
+            case CACHED -> new TourCount(cachedCount(spec, request), false);
+            case ESTIMATED -> estimatedCount(spec);
+        };
+    }
+
+    private SearchCountMode resolveMode(TourSearchRequest request) {
+        String mode = request.getCountMode() != null && !request.getCountMode().isBlank()
+                ? request.getCountMode()
+                : defaultCountMode;
+        try {
+            return SearchCountMode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid countMode: " + mode);
+        }
+    }
+
+    private long cachedCount(Specification<Tour> spec, TourSearchRequest request) {
+        String key = COUNT_CACHE_PREFIX + criteriaKey(request);
+
+        try {
+            String cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                return Long.parseLong(cached);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read cached tour count. key={}, error={}", key, e.getMessage());
+        }
+
+        long total = tourRepository.count(spec);
+
+        try {
+            redisTemplate.opsForValue().set(key, String.valueOf(total), countCacheTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Failed to cache tour count. key={}, error={}", key, e.getMessage());
+        }
+
+        return total;
+    }
+
+    private TourCount estimatedCount(Specification<Tour> spec) {
+        long seen = tourRepository.countUpTo(spec, countEstimateCap);
+        return seen > countEstimateCap
+                ? new TourCount(countEstimateCap, true)
+                : new TourCount(seen, false);
+    }
+
+    /**
+     * Hash of the filter criteria only: paging and sorting do not change the total
+     */
+    private String criteriaKey(TourSearchRequest request) {
+        String criteria = String.join("|",
+                normalize(request.getKeyword()),
+                normalize(request.getDepartureLocation()),
+                normalize(request.getDestination()),
+                String.valueOf(request.getCategoryId()),
+                normalize(request.getMinPrice()),
+                normalize(request.getMaxPrice()),
+                String.valueOf(request.getMinDuration()),
+                String.valueOf(request.getMaxDuration()),
+                String.valueOf(request.getDepartureFrom()),
+                String.valueOf(request.getDepartureTo()),
+                String.valueOf(request.getMinRating()),
+                String.valueOf(request.getHasDiscount()),
+                String.valueOf(Boolean.TRUE.equals(request.getHasAvailableSlots()))
+        );
+        return DigestUtils.md5DigestAsHex(criteria.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String normalize(String value) {
+        return value == null || value.isBlank() ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private String normalize(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -2,13 +2,17 @@ package sun.asterisk.booking_tour.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import sun.asterisk.booking_tour.dto.common.PageResponse;
 import sun.asterisk.booking_tour.dto.tour.TourDetailResponse;
 import sun.asterisk.booking_tour.dto.tour.TourSearchRequest;
@@ -16,19 +20,21 @@ import sun.asterisk.booking_tour.dto.tour.TourSearchResponse;
 import sun.asterisk.booking_tour.entity.Tour;
 import sun.asterisk.booking_tour.entity.TourDeparture;
 import sun.asterisk.booking_tour.entity.TourImage;
-import sun.asterisk.booking_tour.enums.ReviewStatus;
+import sun.asterisk.booking_tour.entity.TourStats;
 import sun.asterisk.booking_tour.enums.TourDepartureStatus;
 import sun.asterisk.booking_tour.exception.ResourceNotFoundException;
-import sun.asterisk.booking_tour.repository.LikeRepository;
-import sun.asterisk.booking_tour.repository.ReviewRepository;
+import sun.asterisk.booking_tour.exception.ValidationException;
 import sun.asterisk.booking_tour.repository.TourDepartureRepository;
 import sun.asterisk.booking_tour.repository.TourRepository;
+import sun.asterisk.booking_tour.repository.TourSearchRepository;
+import sun.asterisk.booking_tour.specification.TourSearchCursor;
 import sun.asterisk.booking_tour.specification.TourSpecification;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,35 +43,100 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class TourService {
 
+    private static final int UPCOMING_DEPARTURE_LIMIT = 5;
+
     private final TourRepository tourRepository;
-    private final ReviewRepository reviewRepository;
-    private final LikeRepository likeRepository;
     private final TourDepartureRepository tourDepartureRepository;
+    private final TourStatsService tourStatsService;
+    private final TourSearchCountService tourSearchCountService;
+    private final TourDetailCacheService tourDetailCacheService;
+    private final PlatformTransactionManager transactionManager;
 
     public PageResponse<TourSearchResponse> searchTours(TourSearchRequest request) {
+        if (isCursorPagination(request)) {
+            return searchToursByCursor(request);
+        }
+
         Specification<Tour> spec = TourSpecification.withSearchCriteria(request);
         Pageable pageable = createPageable(request);
 
-        Page<Tour> tourPage = tourRepository.findAll(spec, pageable);
+        Slice<Tour> tourSlice = tourRepository.findSlice(spec, pageable);
+        List<TourSearchResponse> content = mapToSearchResponses(tourSlice.getContent());
 
-        List<TourSearchResponse> content = tourPage.getContent().stream()
-                .map(this::mapToSearchResponse)
-                .collect(Collectors.toList());
+        // The last page already tells the total; otherwise ask the configured count strategy
+        TourSearchCountService.TourCount count = tourSlice.hasNext() || (tourSlice.isEmpty() && pageable.getOffset() > 0)
+                ? tourSearchCountService.count(spec, request)
+                : new TourSearchCountService.TourCount(pageable.getOffset() + tourSlice.getNumberOfElements(), false);
+        int totalPages = (int) Math.ceil((double) count.getTotal() / pageable.getPageSize());
+
+        return PageResponse.<TourSearchResponse>builder()
+                .content(content)
+                .pageNumber(tourSlice.getNumber())
+                .pageSize(tourSlice.getSize())
+                .totalElements(count.getTotal())
+                .totalPages(totalPages)
+                .totalApproximate(count.isApproximate())
+                .isFirst(tourSlice.isFirst())
+                .isLast(!tourSlice.hasNext())
+                .hasNext(tourSlice.hasNext())
+                .hasPrevious(tourSlice.hasPrevious())
+                .build();
+    }
+
+    /**
+     * Keyset pagination: seeks past the cursor and fetches one extra row to detect a
+     * next page, so there is no OFFSET scan and no COUNT query
+     */
+    private PageResponse<TourSearchResponse> searchToursByCursor(TourSearchRequest request) {
+        if ("relevance".equals(TourSearchCursor.sortKey(request))) {
+            throw new ValidationException("Cursor pagination is not supported for relevance sort");
+        }
+
+        boolean hasCursor = request.getCursor() != null && !request.getCursor().isBlank();
+        TourSearchCursor after = hasCursor ? TourSearchCursor.decode(request.getCursor(), request) : null;
+        int size = request.getSize();
+
+        List<TourSearchRepository.KeysetRow> rows = tourRepository.findKeysetRows(
+                TourSpecification.withKeyset(request, after),
+                size + 1
+        );
+
+        boolean hasNext = rows.size() > size;
+        List<TourSearchRepository.KeysetRow> page = hasNext ? rows.subList(0, size) : rows;
+        List<TourSearchResponse> content = mapToSearchResponses(page.stream()
+                .map(TourSearchRepository.KeysetRow::tour)
+                .collect(Collectors.toList()));
+
+        // The sort value comes from the query itself, so the cursor seeks from exactly
+        // where this page stopped
+        String nextCursor = null;
+        if (hasNext) {
+            TourSearchRepository.KeysetRow last = page.get(page.size() - 1);
+            nextCursor = TourSearchCursor.after(request, last.tour().getId(), last.sortValue()).encode();
+        }
 
         return PageResponse.<TourSearchResponse>builder()
                 .content(content)
-                .pageNumber(tourPage.getNumber())
-                .pageSize(tourPage.getSize())
-                .totalElements(tourPage.getTotalElements())
-                .totalPages(tourPage.getTotalPages())
-                .isFirst(tourPage.isFirst())
-                .isLast(tourPage.isLast())
-                .hasNext(tourPage.hasNext())
-                .hasPrevious(tourPage.hasPrevious())
+                .pageSize(size)
+                .isFirst(!hasCursor)
+                .isLast(!hasNext)
+                .hasNext(hasNext)
+                .hasPrevious(hasCursor)
+                .nextCursor(nextCursor)
                 .build();
     }
 
+    private boolean isCursorPagination(TourSearchRequest request) {
+        return "cursor".equalsIgnoreCase(request.getPagination())
+                || (request.getCursor() != null && !request.getCursor().isBlank());
+    }
+
     private Pageable createPageable(TourSearchRequest request) {
+        if (TourSpecification.hasOwnSort(request)) {
+            // Ordered by the specification (tour_stats join or search rank)
+            return PageRequest.of(request.getPage(), request.getSize());
+        }
+
         Sort sort = createSort(request.getSortBy(), request.getSortOrder());
         return PageRequest.of(request.getPage(), request.getSize(), sort);
     }
@@ -83,27 +154,22 @@ public class TourService {
         };
     }
 
-    private TourSearchResponse mapToSearchResponse(Tour tour) {
-        Double averageRating = reviewRepository.findAverageRatingByTourId(
-            tour.getId(), 
-            ReviewStatus.APPROVED
-        );
-        
-        Long totalReviews = reviewRepository.countByTourIdAndStatus(
-            tour.getId(), 
-            ReviewStatus.APPROVED
-        );
-        
-        Long totalLikes = likeRepository.countByTourId(tour.getId());
-        
-        boolean hasAvailableSlots = tourDepartureRepository.existsAvailableDepartureByTourId(
-            tour.getId(), 
-            TourDepartureStatus.OPEN, 
-            LocalDate.now()
-        );
+    private List<TourSearchResponse> mapToSearchResponses(List<Tour> tours) {
+        if (tours.isEmpty()) {
+            return List.of();
+        }
 
-        LocalDate nextDepartureDate = getNextDepartureDate(tour.getId());
+        List<Long> tourIds = tours.stream()
+                .map(Tour::getId)
+                .collect(Collectors.toList());
+        Map<Long, TourStats> statsByTourId = tourStatsService.getStats(tourIds);
 
+        return tours.stream()
+                .map(tour -> mapToSearchResponse(tour, statsByTourId.get(tour.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private TourSearchResponse mapToSearchResponse(Tour tour, TourStats stats) {
         BigDecimal finalPrice = calculateFinalPrice(tour.getPriceAdult(), tour.getDiscountRate());
 
         return TourSearchResponse.builder()
@@ -122,23 +188,15 @@ public class TourService {
                 .finalPrice(finalPrice)
                 .categoryId(tour.getCategory() != null ? tour.getCategory().getId() : null)
                 .categoryName(tour.getCategory() != null ? tour.getCategory().getName() : null)
-                .averageRating(averageRating)
-                .totalReviews(totalReviews)
-                .totalLikes(totalLikes)
-                .hasAvailableSlots(hasAvailableSlots)
-                .nextDepartureDate(nextDepartureDate)
+                .averageRating(stats.getAverageRating())
+                .totalReviews(stats.getReviewCount())
+                .totalLikes(stats.getLikeCount())
+                .hasAvailableSlots(stats.getHasAvailableSlots())
+                .nextDepartureDate(stats.getNextDepartureDate())
                 .build();
     }
 
-    private LocalDate getNextDepartureDate(Long tourId) {
-        return tourDepartureRepository.findNextAvailableDepartureDate(
-                tourId, 
-                LocalDate.now(), 
-                TourDepartureStatus.OPEN
-        );
-    }
-
-    private BigDecimal calculateFinalPrice(BigDecimal priceAdult, BigDecimal discountRate) {
+    static BigDecimal calculateFinalPrice(BigDecimal priceAdult, BigDecimal discountRate) {
         if (priceAdult == null) {
             return BigDecimal.ZERO;
         }
@@ -154,32 +212,36 @@ public class TourService {
         return priceAdult.subtract(discount);
     }
 
+    /**
+     * Served from the detail cache; only a miss opens a read-only transaction
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public TourDetailResponse getTourBySlug(String slug) {
-        Tour tour = tourRepository.findBySlug(slug)
+        return tourDetailCacheService.get(slug, () -> readOnlyTransaction().execute(status -> loadTourDetail(slug)));
+    }
+
+    private TourDetailResponse loadTourDetail(String slug) {
+        Tour tour = tourRepository.findWithDetailsBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Tour not found with slug: " + slug));
 
         return mapToDetailResponse(tour);
     }
 
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
     private TourDetailResponse mapToDetailResponse(Tour tour) {
-        Double averageRating = reviewRepository.findAverageRatingByTourId(
-            tour.getId(), 
-            ReviewStatus.APPROVED
-        );
-        
-        Long totalReviews = reviewRepository.countByTourIdAndStatus(
-            tour.getId(), 
-            ReviewStatus.APPROVED
-        );
-        
-        Long totalLikes = likeRepository.countByTourId(tour.getId());
-
-        List<TourDeparture> departures = tourDepartureRepository.findByTourId(tour.getId());
-        List<TourDetailResponse.DepartureInfo> upcomingDepartures = departures.stream()
-                .filter(d -> d.getDepartureDate().isAfter(LocalDate.now().minusDays(1)))
-                .filter(d -> d.getStatus() == TourDepartureStatus.OPEN)
-                .sorted((d1, d2) -> d1.getDepartureDate().compareTo(d2.getDepartureDate()))
-                .limit(5)
+        TourStats stats = tourStatsService.getStats(tour.getId());
+
+        List<TourDetailResponse.DepartureInfo> upcomingDepartures = tourDepartureRepository.findUpcomingDepartures(
+                        tour.getId(),
+                        LocalDate.now(),
+                        TourDepartureStatus.OPEN,
+                        Limit.of(UPCOMING_DEPARTURE_LIMIT)
+                ).stream()
                 .map(this::mapToDepartureInfo)
                 .collect(Collectors.toList());
 
@@ -217,9 +279,9 @@ public class TourService {
                 .finalPrice(finalPrice)
                 .category(tour.getCategory() != null ? mapToCategoryInfo(tour) : null)
                 .creator(tour.getCreator() != null ? mapToCreatorInfo(tour) : null)
-                .averageRating(averageRating)
-                .totalReviews(totalReviews)
-                .totalLikes(totalLikes)
+                .averageRating(stats.getAverageRating())
+                .totalReviews(stats.getReviewCount())
+                .totalLikes(stats.getLikeCount())
                 .images(images)
                 .upcomingDepartures(upcomingDepartures)
                 .build();
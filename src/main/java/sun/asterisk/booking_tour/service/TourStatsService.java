@@ -0,0 +1,196 @@
+package sun.asterisk.booking_tour.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sun.asterisk.booking_tour.entity.Review;
+import sun.asterisk.booking_tour.entity.TourStats;
+import sun.asterisk.booking_tour.enums.ReviewStatus;
+import sun.asterisk.booking_tour.enums.TourDepartureStatus;
+import sun.asterisk.booking_tour.repository.LikeRepository;
+import sun.asterisk.booking_tour.repository.ReviewRepository;
+import sun.asterisk.booking_tour.repository.TourDepartureRepository;
+import sun.asterisk.booking_tour.repository.TourStatsRepository;
+
+/**
+ * Maintains the tour_stats projection: incremental updates on review, like and
+ * departure inventory changes, plus a periodic rebuild that repairs drift
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TourStatsService {
+
+    private final TourStatsRepository tourStatsRepository;
+    private final ReviewRepository reviewRepository;
+    private final LikeRepository likeRepository;
+    private final TourDepartureRepository tourDepartureRepository;
+    private final TourDetailCacheService tourDetailCacheService;
+
+    @Value("${tour-stats.rebuild-batch-size:1000}")
+    private long rebuildBatchSize;
+
+    /**
+     * Load stats for the given tours. Tours whose stored next departure is already in the
+     * past, or that somehow lack a row, are computed from the source tables instead.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, TourStats> getStats(Collection<Long> tourIds) {
+        if (tourIds.isEmpty()) {
+            return Map.of();
+        }
+
+        LocalDate today = LocalDate.now();
+        Map<Long, TourStats> statsByTourId = new HashMap<>();
+        tourStatsRepository.findAllById(tourIds).stream()
+                .filter(stats -> isFresh(stats, today))
+                .forEach(stats -> statsByTourId.put(stats.getTourId(), stats));
+
+        List<Long> missingIds = tourIds.stream()
+                .filter(id -> !statsByTourId.containsKey(id))
+                .collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            statsByTourId.putAll(computeStats(missingIds, today));
+        }
+
+        return statsByTourId;
+    }
+
+    @Transactional(readOnly = true)
+    public TourStats getStats(Long tourId) {
+        return getStats(List.of(tourId)).get(tourId);
+    }
+
+    /**
+     * Call when a review becomes APPROVED
+     */
+    @Transactional
+    public void onReviewApproved(Review review) {
+        applyReviewDelta(review, 1);
+    }
+
+    /**
+     * Call when an APPROVED review is rejected or deleted
+     */
+    @Transactional
+    public void onReviewWithdrawn(Review review) {
+        applyReviewDelta(review, -1);
+    }
+
+    @Transactional
+    public void onLikeAdded(Long tourId) {
+        if (tourStatsRepository.addLikes(tourId, 1) == 0) {
+            rebuildTour(tourId);
+        }
+        tourDetailCacheService.evict(tourId);
+    }
+
+    @Transactional
+    public void onLikeRemoved(Long tourId) {
+        if (tourStatsRepository.addLikes(tourId, -1) == 0) {
+            rebuildTour(tourId);
+        }
+        tourDetailCacheService.evict(tourId);
+    }
+
+    /**
+     * Call after a departure of the tour changes status, date or available slots
+     */
+    @Transactional
+    public void onDeparturesChanged(Long tourId) {
+        LocalDate nextDepartureDate = tourDepartureRepository.findNextAvailableDepartureDate(
+                tourId,
+                LocalDate.now(),
+                TourDepartureStatus.OPEN
+        );
+
+        int updated = tourStatsRepository.updateDepartureSummary(
+                tourId,
+                nextDepartureDate,
+                nextDepartureDate != null
+        );
+        if (updated == 0) {
+            rebuildTour(tourId);
+        }
+        tourDetailCacheService.evict(tourId);
+    }
+
+    @Transactional
+    public void rebuildTour(Long tourId) {
+        tourStatsRepository.rebuildRange(tourId, tourId, LocalDate.now());
+    }
+
+    /**
+     * Recompute every row in id-range batches, each batch in its own transaction.
+     * Also rolls next departure dates forward once their day has passed.
+     */
+    @Scheduled(cron = "${tour-stats.rebuild-cron:0 5 0 * * *}")
+    public void rebuildAll() {
+        long maxTourId = tourStatsRepository.findMaxTourId();
+        LocalDate today = LocalDate.now();
+        long rows = 0;
+
+        for (long fromId = 1; fromId <= maxTourId; fromId += rebuildBatchSize) {
+            long toId = Math.min(fromId + rebuildBatchSize - 1, maxTourId);
+            rows += tourStatsRepository.rebuildRange(fromId, toId, today);
+        }
+
+        log.info("Rebuilt tour stats. rows={}, maxTourId={}", rows, maxTourId);
+    }
+
+    private void applyReviewDelta(Review review, int sign) {
+        if (review == null || review.getTour() == null || review.getRating() == null) {
+            return;
+        }
+
+        Long tourId = review.getTour().getId();
+        int updated = tourStatsRepository.addReviews(tourId, (long) sign * review.getRating(), sign);
+        if (updated == 0) {
+            rebuildTour(tourId);
+        }
+        tourDetailCacheService.evict(tourId);
+    }
+
+    private boolean isFresh(TourStats stats, LocalDate today) {
+        return stats.getNextDepartureDate() == null || !stats.getNextDepartureDate().isBefore(today);
+    }
+
+    private Map<Long, TourStats> computeStats(List<Long> tourIds, LocalDate today) {
+        Map<Long, TourStats> statsByTourId = new HashMap<>();
+        for (Long tourId : tourIds) {
+            TourStats stats = new TourStats();
+            stats.setTourId(tourId);
+            statsByTourId.put(tourId, stats);
+        }
+
+        reviewRepository.summarizeRatingsByTourIds(tourIds, ReviewStatus.APPROVED).forEach(summary -> {
+            TourStats stats = statsByTourId.get(summary.getTourId());
+            stats.setReviewCount(summary.getTotalReviews());
+            stats.setRatingSum(summary.getRatingSum());
+            stats.setAverageRating(summary.getRatingSum().doubleValue() / summary.getTotalReviews());
+        });
+
+        likeRepository.countByTourIds(tourIds).forEach(count ->
+                statsByTourId.get(count.getTourId()).setLikeCount(count.getTotalLikes()));
+
+        tourDepartureRepository.findNextAvailableDepartureDates(tourIds, today, TourDepartureStatus.OPEN)
+                .forEach(next -> {
+                    TourStats stats = statsByTourId.get(next.getTourId());
+                    stats.setNextDepartureDate(next.getNextDepartureDate());
+                    stats.setHasAvailableSlots(next.getNextDepartureDate() != null);
+                });
+
+        return statsByTourId;
+    }
+}
@@ -0,0 +1,135 @@
+package sun.asterisk.booking_tour.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sun.asterisk.booking_tour.cache.LocalTtlCache;
+import sun.asterisk.booking_tour.config.CustomUserDetails;
+
+/**
+ * Two-level cache of the authenticated principal keyed by user id, so the JWT filter
+ * does not load the user and role from the database on every request.
+ *
+ * Same layout as the tour detail cache: short-lived L1 in process, L2 in Redis,
+ * evictions applied after commit and broadcast so every instance drops its L1 copy.
+ * Call {@link #evict(Long)} whenever profile fields, status or role change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserPrincipalCacheService {
+
+    private static final String KEY_PREFIX = "user:principal:";
+    private static final String INVALIDATION_CHANNEL = "user:principal:invalidate";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final ObjectMapper objectMapper;
+
+    @Value("${user-principal-cache.local-max-size:10000}")
+    private int localMaxSize;
+
+    @Value("${user-principal-cache.local-ttl-seconds:30}")
+    private long localTtlSeconds;
+
+    @Value("${user-principal-cache.redis-ttl-seconds:300}")
+    private long redisTtlSeconds;
+
+    private LocalTtlCache<Long, CustomUserDetails> localCache;
+
+    @PostConstruct
+    void init() {
+        localCache = new LocalTtlCache<>(localMaxSize, TimeUnit.SECONDS.toMillis(localTtlSeconds));
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> {
+                    try {
+                        localCache.invalidate(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+                    } catch (NumberFormatException e) {
+                        log.warn("Ignoring malformed user principal invalidation message");
+                    }
+                },
+                new ChannelTopic(INVALIDATION_CHANNEL)
+        );
+    }
+
+    /**
+     * Return the cached principal or load it; a null from the loader (unknown user) is not cached
+     */
+    public CustomUserDetails get(Long userId, Supplier<CustomUserDetails> loader) {
+        return localCache.get(userId, key -> {
+            CustomUserDetails cached = readRedis(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            CustomUserDetails loaded = loader.get();
+            if (loaded != null) {
+                writeRedis(key, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Evict the user's principal once the current transaction commits (immediately if none)
+     */
+    public void evict(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId);
+                }
+            });
+        } else {
+            evictNow(userId);
+        }
+    }
+
+    private void evictNow(Long userId) {
+        localCache.invalidate(userId);
+        try {
+            redisTemplate.delete(KEY_PREFIX + userId);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, userId.toString());
+        } catch (Exception e) {
+            log.warn("Failed to evict user principal cache. userId={}, error={}", userId, e.getMessage());
+        }
+    }
+
+    private CustomUserDetails readRedis(Long userId) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + userId);
+            return json != null ? objectMapper.readValue(json, CustomUserDetails.class) : null;
+        } catch (Exception e) {
+            log.warn("Failed to read user principal cache. userId={}, error={}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(Long userId, CustomUserDetails userDetails) {
+        try {
+            redisTemplate.opsForValue().set(
+                    KEY_PREFIX + userId,
+                    objectMapper.writeValueAsString(userDetails),
+                    redisTtlSeconds,
+                    TimeUnit.SECONDS
+            );
+        } catch (Exception e) {
+            log.warn("Failed to write user principal cache. userId={}, error={}", userId, e.getMessage());
+        }
+    }
+}
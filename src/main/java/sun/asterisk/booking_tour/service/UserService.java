@@ -17,6 +17,7 @@ import sun.asterisk.booking_tour.repository.UserRepository;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCacheService userPrincipalCacheService;
 
     /**
      * Get user profile by user ID
@@ -40,6 +41,7 @@ public class UserService {
         updateUserFields(user, request);
 
         User updatedUser = userRepository.save(user);
+        userPrincipalCacheService.evict(userId);
         log.info("User profile updated successfully for userId: {}", userId);
 
         return mapToUserProfileResponse(updatedUser);
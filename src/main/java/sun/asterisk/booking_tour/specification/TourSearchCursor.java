@@ -0,0 +1,94 @@
+package sun.asterisk.booking_tour.specification;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import lombok.Getter;
+import sun.asterisk.booking_tour.dto.tour.TourSearchRequest;
+import sun.asterisk.booking_tour.exception.ValidationException;
+
+/**
+ * Opaque keyset position for tour search: the sort it was issued for plus the
+ * sort key and id of the last row returned
+ */
+@Getter
+public class TourSearchCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortBy;
+    private final String sortOrder;
+    private final Long id;
+    private final Comparable<?> sortValue;
+
+    private TourSearchCursor(String sortBy, String sortOrder, Long id, Comparable<?> sortValue) {
+        this.sortBy = sortBy;
+        this.sortOrder = sortOrder;
+        this.id = id;
+        this.sortValue = sortValue;
+    }
+
+    public static TourSearchCursor after(TourSearchRequest request, Long id, Comparable<?> sortValue) {
+        return new TourSearchCursor(sortKey(request), sortOrder(request), id, sortValue);
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + sortOrder + SEPARATOR + id + SEPARATOR
+                + (sortValue != null ? sortValue.toString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor and check it was issued for the same sort as the request
+     */
+    public static TourSearchCursor decode(String cursor, TourSearchRequest request) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            parts = raw.split("\\" + SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+
+        if (parts.length != 4) {
+            throw new ValidationException("Invalid cursor");
+        }
+        if (!parts[0].equals(sortKey(request)) || !parts[1].equals(sortOrder(request))) {
+            throw new ValidationException("Cursor does not match the requested sort");
+        }
+
+        try {
+            Long id = Long.valueOf(parts[2]);
+            Comparable<?> sortValue = parts[3].isEmpty() ? null : parseSortValue(parts[0], parts[3]);
+            return new TourSearchCursor(parts[0], parts[1], id, sortValue);
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Normalized sort key; unknown values fall back to newest, as in offset paging
+     */
+    public static String sortKey(TourSearchRequest request) {
+        String sortBy = request.getSortBy() != null ? request.getSortBy().toLowerCase() : "newest";
+        return switch (sortBy) {
+            case "price", "discount", "rating", "popular", "relevance" -> sortBy;
+            default -> "newest";
+        };
+    }
+
+    private static String sortOrder(TourSearchRequest request) {
+        return "asc".equalsIgnoreCase(request.getSortOrder()) ? "asc" : "desc";
+    }
+
+    private static Comparable<?> parseSortValue(String sortBy, String value) {
+        return switch (sortBy) {
+            case "price", "discount" -> new BigDecimal(value);
+            case "rating" -> Double.valueOf(value);
+            case "popular" -> Long.valueOf(value);
+            default -> LocalDateTime.parse(value);
+        };
+    }
+}
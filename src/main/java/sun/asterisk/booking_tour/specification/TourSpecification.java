@@ -1,13 +1,23 @@
 package sun.asterisk.booking_tour.specification;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.query.criteria.JpaEntityJoin;
+import org.hibernate.query.criteria.JpaRoot;
+import org.hibernate.query.sqm.tree.SqmJoinType;
 import org.springframework.data.jpa.domain.Specification;
+import sun.asterisk.booking_tour.config.TourSearchFunctions;
 import sun.asterisk.booking_tour.dto.tour.TourSearchRequest;
 import sun.asterisk.booking_tour.entity.Category;
 import sun.asterisk.booking_tour.entity.Tour;
 import sun.asterisk.booking_tour.entity.TourDeparture;
+import sun.asterisk.booking_tour.entity.TourStats;
 import sun.asterisk.booking_tour.enums.CategoryStatus;
 import sun.asterisk.booking_tour.enums.TourDepartureStatus;
 
@@ -19,17 +29,44 @@ import java.util.List;
 public class TourSpecification {
 
     public static Specification<Tour> withSearchCriteria(TourSearchRequest request) {
+        return withSearchCriteria(request, false, null);
+    }
+
+    /**
+     * Keyset variant of the search: always ordered by (sort key, id) and, when a cursor
+     * is given, restricted to rows after it. Not supported for relevance sort.
+     */
+    public static Specification<Tour> withKeyset(TourSearchRequest request, TourSearchCursor after) {
+        return withSearchCriteria(request, true, after);
+    }
+
+    private static Specification<Tour> withSearchCriteria(
+            TourSearchRequest request,
+            boolean keyset,
+            TourSearchCursor after
+    ) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            if (request.getKeyword() != null && !request.getKeyword().trim().isEmpty()) {
-                String keyword = "%" + request.getKeyword().toLowerCase() + "%";
-                Predicate namePredicate = cb.like(cb.lower(root.get("name")), keyword);
-                Predicate titlePredicate = cb.like(cb.lower(root.get("title")), keyword);
-                Predicate descPredicate = cb.like(cb.lower(root.get("description")), keyword);
-                Predicate destPredicate = cb.like(cb.lower(root.get("mainDestination")), keyword);
+            // Keyword - full-text search over name, title, destination and description
+            if (hasKeyword(request)) {
+                Expression<Boolean> matches = cb.function(
+                        TourSearchFunctions.MATCH_FUNCTION,
+                        Boolean.class,
+                        root.get("id"),
+                        cb.literal(request.getKeyword().trim())
+                );
+                predicates.add(cb.isTrue(matches));
 
-                predicates.add(cb.or(namePredicate, titlePredicate, descPredicate, destPredicate));
+                if (isRelevanceSort(request) && !Long.class.equals(query.getResultType())) {
+                    Expression<Double> rank = cb.function(
+                            TourSearchFunctions.RANK_FUNCTION,
+                            Double.class,
+                            root.get("id"),
+                            cb.literal(request.getKeyword().trim())
+                    );
+                    query.orderBy(cb.desc(rank), cb.desc(root.get("id")));
+                }
             }
 
             // Departure location
@@ -86,34 +123,148 @@ public class TourSpecification {
 
             // Available slots filter
             if (request.getHasAvailableSlots() != null && request.getHasAvailableSlots()) {
-                Join<Tour, TourDeparture> departureJoin = root.join("tourDepartures", JoinType.LEFT);
-                predicates.add(cb.greaterThan(departureJoin.get("availableSlots"), 0));
-                predicates.add(cb.equal(departureJoin.get("status"), TourDepartureStatus.OPEN));
-                predicates.add(cb.greaterThanOrEqualTo(departureJoin.get("departureDate"), LocalDate.now()));
-                query.distinct(true);
+                Subquery<Long> departureQuery = query.subquery(Long.class);
+                Root<TourDeparture> departure = departureQuery.from(TourDeparture.class);
+                departureQuery.select(departure.get("id")).where(
+                        cb.equal(departure.get("tour"), root),
+                        cb.greaterThan(departure.get("availableSlots"), 0),
+                        cb.equal(departure.get("status"), TourDepartureStatus.OPEN),
+                        cb.greaterThanOrEqualTo(departure.get("departureDate"), LocalDate.now())
+                );
+                predicates.add(cb.exists(departureQuery));
             }
 
             // Departure date range
             if (request.getDepartureFrom() != null || request.getDepartureTo() != null) {
-                Join<Tour, TourDeparture> departureJoin = root.join("tourDepartures", JoinType.LEFT);
+                Subquery<Long> departureQuery = query.subquery(Long.class);
+                Root<TourDeparture> departure = departureQuery.from(TourDeparture.class);
+                List<Predicate> departurePredicates = new ArrayList<>();
+                departurePredicates.add(cb.equal(departure.get("tour"), root));
 
                 if (request.getDepartureFrom() != null) {
-                    predicates.add(cb.greaterThanOrEqualTo(
-                            departureJoin.get("departureDate"),
+                    departurePredicates.add(cb.greaterThanOrEqualTo(
+                            departure.get("departureDate"),
                             request.getDepartureFrom()
                     ));
                 }
                 if (request.getDepartureTo() != null) {
-                    predicates.add(cb.lessThanOrEqualTo(
-                            departureJoin.get("departureDate"),
+                    departurePredicates.add(cb.lessThanOrEqualTo(
+                            departure.get("departureDate"),
                             request.getDepartureTo()
                     ));
                 }
 
-                query.distinct(true);
+                departureQuery.select(departure.get("id"))
+                        .where(departurePredicates.toArray(new Predicate[0]));
+                predicates.add(cb.exists(departureQuery));
+            }
+
+            // Rating filter and rating/popularity sort, served from the tour_stats projection.
+            // Every tour has a row (created with the tour), so an inner join loses nothing and
+            // the sorts can walk (average_rating, tour_id) / (like_count, tour_id) in index
+            // order. Count queries only need it to filter.
+            boolean sortByStats = isStatsSort(request);
+            boolean countQuery = Long.class.equals(query.getResultType());
+            JpaEntityJoin<TourStats> statsJoin = null;
+            boolean filterByRating = request.getMinRating() != null && request.getMinRating() > 0;
+            if (filterByRating || (sortByStats && !countQuery)) {
+                statsJoin = ((JpaRoot<Tour>) root).join(TourStats.class, SqmJoinType.INNER);
+                statsJoin.on(cb.equal(statsJoin.get("tourId"), root.get("id")));
+
+                // A minimum of 0 or less filters nothing; a positive one drops unrated tours
+                if (filterByRating) {
+                    predicates.add(cb.greaterThanOrEqualTo(
+                            statsJoin.get("averageRating"),
+                            request.getMinRating().doubleValue()
+                    ));
+                }
+            }
+
+            boolean ascending = "asc".equalsIgnoreCase(request.getSortOrder());
+            if ((keyset || sortByStats) && !countQuery) {
+                Expression<?> sortKey = sortKey(request, root, cb, statsJoin);
+                // Tie-break on the column the stats indexes end with
+                Path<Long> id = statsJoin != null && sortByStats ? statsJoin.get("tourId") : root.get("id");
+
+                if (after != null) {
+                    predicates.add(seekAfter(cb, sortKey, id, after, ascending));
+                }
+                query.orderBy(
+                        ascending ? cb.asc(sortKey) : cb.desc(sortKey),
+                        ascending ? cb.asc(id) : cb.desc(id)
+                );
             }
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    private static Expression<?> sortKey(
+            TourSearchRequest request,
+            Root<Tour> root,
+            CriteriaBuilder cb,
+            JpaEntityJoin<TourStats> statsJoin
+    ) {
+        return switch (TourSearchCursor.sortKey(request)) {
+            case "price" -> root.get("priceAdult");
+            case "discount" -> root.get("discountRate");
+            case "rating" -> statsJoin.get("averageRating");
+            case "popular" -> statsJoin.get("likeCount");
+            default -> root.get("createdAt");
+        };
+    }
+
+    /**
+     * Rows strictly after the cursor in (sort key, id) order. PostgreSQL puts NULL sort
+     * keys last when ascending and first when descending. The key and the cursor value
+     * are of the same sort, so they are compared as raw Comparables.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Predicate seekAfter(
+            CriteriaBuilder cb,
+            Expression<?> key,
+            Path<Long> id,
+            TourSearchCursor after,
+            boolean ascending
+    ) {
+        Expression<Comparable> sortKey = (Expression<Comparable>) key;
+        Predicate idAfter = ascending
+                ? cb.greaterThan(id, after.getId())
+                : cb.lessThan(id, after.getId());
+
+        Comparable value = after.getSortValue();
+        if (value == null) {
+            return ascending
+                    ? cb.and(cb.isNull(sortKey), idAfter)
+                    : cb.or(cb.isNotNull(sortKey), cb.and(cb.isNull(sortKey), idAfter));
+        }
+
+        Predicate keyAfter = ascending
+                ? cb.greaterThan(sortKey, value)
+                : cb.lessThan(sortKey, value);
+        Predicate sameKeyIdAfter = cb.and(cb.equal(sortKey, value), idAfter);
+
+        return ascending
+                ? cb.or(keyAfter, sameKeyIdAfter, cb.isNull(sortKey))
+                : cb.or(keyAfter, sameKeyIdAfter);
+    }
+
+    /**
+     * Whether ordering is applied by the specification itself rather than the Pageable
+     */
+    public static boolean hasOwnSort(TourSearchRequest request) {
+        return isStatsSort(request) || isRelevanceSort(request);
+    }
+
+    private static boolean isStatsSort(TourSearchRequest request) {
+        return "rating".equalsIgnoreCase(request.getSortBy()) || "popular".equalsIgnoreCase(request.getSortBy());
+    }
+
+    private static boolean isRelevanceSort(TourSearchRequest request) {
+        return "relevance".equalsIgnoreCase(request.getSortBy()) && hasKeyword(request);
+    }
+
+    private static boolean hasKeyword(TourSearchRequest request) {
+        return request.getKeyword() != null && !request.getKeyword().trim().isEmpty();
+    }
 }
@@ -0,0 +1,253 @@
+-- Schema as it stood before versioned migrations. Databases that already have these tables
+-- are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create table bookings (
+    discount numeric(10,2),
+    final_total numeric(10,2) not null,
+    num_adults integer not null,
+    num_children integer not null,
+    sub_total numeric(10,2) not null,
+    created_at timestamp(6),
+    id bigserial not null,
+    tour_departure_id bigint not null,
+    updated_at timestamp(6),
+    user_id bigint,
+    code varchar(255) not null unique,
+    contact_email varchar(255) not null,
+    contact_name varchar(255) not null,
+    contact_phone varchar(255) not null,
+    notes TEXT,
+    status varchar(255) not null check (status in ('PENDING','CONFIRMED','PAID','CANCELLED','COMPLETED','REFUNDED')),
+    primary key (id)
+);
+
+create table categories (
+    created_at timestamp(6),
+    id bigserial not null,
+    updated_at timestamp(6),
+    description TEXT,
+    name varchar(255) not null unique,
+    slug varchar(255) not null unique,
+    status varchar(255) not null check (status in ('ACTIVE','INACTIVE')),
+    primary key (id)
+);
+
+create table comments (
+    created_at timestamp(6),
+    id bigserial not null,
+    parent_id bigint,
+    tour_id bigint not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    content TEXT not null,
+    primary key (id)
+);
+
+create table likes (
+    created_at timestamp(6),
+    id bigserial not null,
+    tour_id bigint not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    primary key (id),
+    unique (user_id, tour_id)
+);
+
+create table payments (
+    amount numeric(10,2) not null,
+    booking_id bigint not null,
+    created_at timestamp(6),
+    id bigserial not null,
+    payment_date timestamp(6),
+    updated_at timestamp(6),
+    payment_method varchar(255) not null check (payment_method in ('CREDIT_CARD','DEBIT_CARD','BANK_TRANSFER','STRIPE','CASH')),
+    status varchar(255) not null check (status in ('PENDING','COMPLETED','FAILED','REFUNDED')),
+    transaction_id varchar(255) unique,
+    primary key (id)
+);
+
+create table reviews (
+    rating integer not null,
+    booking_id bigint,
+    created_at timestamp(6),
+    id bigserial not null,
+    tour_id bigint not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    content TEXT not null,
+    status varchar(255) not null check (status in ('PENDING','APPROVED','REJECTED')),
+    title varchar(255) not null,
+    primary key (id)
+);
+
+create table roles (
+    created_at timestamp(6),
+    id bigserial not null,
+    updated_at timestamp(6),
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table tokens (
+    created_at timestamp(6),
+    expires_at timestamp(6) not null,
+    id bigserial not null,
+    refresh_expires_at timestamp(6) not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    token_key varchar(36) not null unique,
+    access_token TEXT,
+    device_info varchar(255),
+    ip_address varchar(255),
+    refresh_token TEXT not null,
+    primary key (id)
+);
+
+create table tour_departures (
+    available_slots integer not null,
+    departure_date date not null,
+    return_date date not null,
+    total_slots integer not null,
+    created_at timestamp(6),
+    id bigserial not null,
+    tour_id bigint not null,
+    updated_at timestamp(6),
+    status varchar(255) not null check (status in ('OPEN','FULL','CLOSED')),
+    primary key (id)
+);
+
+create table tour_images (
+    display_order integer,
+    is_primary boolean,
+    created_at timestamp(6),
+    id bigserial not null,
+    tour_id bigint not null,
+    updated_at timestamp(6),
+    caption TEXT,
+    image_url varchar(255) not null,
+    primary key (id)
+);
+
+create table tours (
+    discount_rate numeric(5,2),
+    duration_days integer,
+    duration_nights integer,
+    price_adult numeric(10,2),
+    price_child numeric(10,2),
+    category_id bigint,
+    created_at timestamp(6),
+    creator_id bigint,
+    id bigserial not null,
+    updated_at timestamp(6),
+    departure_location varchar(255),
+    description TEXT not null,
+    itinerary TEXT,
+    main_destination varchar(255),
+    name varchar(255) not null,
+    slug varchar(255) not null unique,
+    thumbnail_url varchar(255),
+    title varchar(255) not null,
+    primary key (id)
+);
+
+create table users (
+    date_of_birth date,
+    is_verified boolean,
+    created_at timestamp(6),
+    id bigserial not null,
+    role_id bigint,
+    updated_at timestamp(6),
+    avatar_url varchar(255),
+    email varchar(255) not null unique,
+    first_name varchar(255),
+    last_name varchar(255),
+    password varchar(255) not null,
+    phone varchar(255),
+    status varchar(255) not null check (status in ('PENDING','ACTIVE','INACTIVE')),
+    primary key (id)
+);
+
+alter table if exists bookings
+    add constraint FKqsoq7ugb06c51h80wwde3jvy6
+    foreign key (tour_departure_id)
+    references tour_departures;
+
+alter table if exists bookings
+    add constraint FKeyog2oic85xg7hsu2je2lx3s6
+    foreign key (user_id)
+    references users;
+
+alter table if exists comments
+    add constraint FKlri30okf66phtcgbe5pok7cc0
+    foreign key (parent_id)
+    references comments;
+
+alter table if exists comments
+    add constraint FKtj2hwrfujr69cklhtyrfn0uf7
+    foreign key (tour_id)
+    references tours;
+
+alter table if exists comments
+    add constraint FK8omq0tc18jd43bu5tjh6jvraq
+    foreign key (user_id)
+    references users;
+
+alter table if exists likes
+    add constraint FK8ecj58okplkik6wq1y3l9qtwo
+    foreign key (tour_id)
+    references tours;
+
+alter table if exists likes
+    add constraint FKnvx9seeqqyy71bij291pwiwrg
+    foreign key (user_id)
+    references users;
+
+alter table if exists payments
+    add constraint FKc52o2b1jkxttngufqp3t7jr3h
+    foreign key (booking_id)
+    references bookings;
+
+alter table if exists reviews
+    add constraint FK28an517hrxtt2bsg93uefugrm
+    foreign key (booking_id)
+    references bookings;
+
+alter table if exists reviews
+    add constraint FKg95fdc12cdl5o06q6la9jh0dm
+    foreign key (tour_id)
+    references tours;
+
+alter table if exists reviews
+    add constraint FKcgy7qjc1r99dp117y9en6lxye
+    foreign key (user_id)
+    references users;
+
+alter table if exists tokens
+    add constraint FK2dylsfo39lgjyqml2tbe0b0ss
+    foreign key (user_id)
+    references users;
+
+alter table if exists tour_departures
+    add constraint FKppamisdafsgj745l8vnfmiy1p
+    foreign key (tour_id)
+    references tours;
+
+alter table if exists tour_images
+    add constraint FKth1m2rd6q6ltp8kii2msvfi5d
+    foreign key (tour_id)
+    references tours;
+
+alter table if exists tours
+    add constraint FK4mwn5rnlqad3gi9lm0yddhoy4
+    foreign key (category_id)
+    references categories;
+
+alter table if exists tours
+    add constraint FKictlswfba1bdex4eo0pco0llk
+    foreign key (creator_id)
+    references users;
+
+alter table if exists users
+    add constraint FKp56c1712k691lhsyewcssf40f
+    foreign key (role_id)
+    references roles;
@@ -0,0 +1,17 @@
+-- Denormalized per-tour rating, like and availability figures (see TourStatsService)
+
+create table if not exists tour_stats (
+    average_rating float(53) not null,
+    has_available_slots boolean not null,
+    next_departure_date date,
+    created_at timestamp(6),
+    like_count bigint not null,
+    rating_sum bigint not null,
+    review_count bigint not null,
+    tour_id bigint not null,
+    updated_at timestamp(6),
+    primary key (tour_id)
+);
+
+create index if not exists idx_tour_stats_rating on tour_stats (average_rating, tour_id);
+create index if not exists idx_tour_stats_likes on tour_stats (like_count, tour_id);
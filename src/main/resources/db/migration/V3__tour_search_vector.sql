@@ -0,0 +1,19 @@
+-- Full-text search over tours. The folding must match FOLD_FROM/FOLD_TO in TourSearchFunctions.
+
+alter table tours add column if not exists search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('simple', translate(lower(coalesce(name, '')),
+            'àáạảãâầấậẩẫăằắặẳẵèéẹẻẽêềếệểễìíịỉĩòóọỏõôồốộổỗơờớợởỡùúụủũưừứựửữỳýỵỷỹđ',
+            'aaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyyd')), 'A') ||
+        setweight(to_tsvector('simple', translate(lower(coalesce(title, '')),
+            'àáạảãâầấậẩẫăằắặẳẵèéẹẻẽêềếệểễìíịỉĩòóọỏõôồốộổỗơờớợởỡùúụủũưừứựửữỳýỵỷỹđ',
+            'aaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyyd')), 'A') ||
+        setweight(to_tsvector('simple', translate(lower(coalesce(main_destination, '')),
+            'àáạảãâầấậẩẫăằắặẳẵèéẹẻẽêềếệểễìíịỉĩòóọỏõôồốộổỗơờớợởỡùúụủũưừứựửữỳýỵỷỹđ',
+            'aaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyyd')), 'B') ||
+        setweight(to_tsvector('simple', translate(lower(coalesce(description, '')),
+            'àáạảãâầấậẩẫăằắặẳẵèéẹẻẽêềếệểễìíịỉĩòóọỏõôồốộổỗơờớợởỡùúụủũưừứựửữỳýỵỷỹđ',
+            'aaaaaaaaaaaaaaaaaeeeeeeeeeeeiiiiiooooooooooooooooouuuuuuuuuuuyyyyyd')), 'C')
+    ) stored;
+
+create index if not exists idx_tours_search_vector on tours using gin (search_vector);
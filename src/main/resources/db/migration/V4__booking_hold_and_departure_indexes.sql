@@ -0,0 +1,5 @@
+-- Pending bookings hold their seats until hold_expires_at (see BookingHoldService)
+alter table bookings add column if not exists hold_expires_at timestamp(6);
+
+create index if not exists idx_bookings_status_hold_expires_at on bookings (status, hold_expires_at);
+create index if not exists idx_tour_departures_tour_status_date on tour_departures (tour_id, status, departure_date);
@@ -0,0 +1,28 @@
+-- Pooled id sequences (allocationSize 50). On databases that already hold rows each sequence
+-- is moved past the highest existing id, and never backwards.
+
+create sequence if not exists bookings_seq start with 1 increment by 50;
+create sequence if not exists categories_seq start with 1 increment by 50;
+create sequence if not exists comments_seq start with 1 increment by 50;
+create sequence if not exists likes_seq start with 1 increment by 50;
+create sequence if not exists payments_seq start with 1 increment by 50;
+create sequence if not exists reviews_seq start with 1 increment by 50;
+create sequence if not exists roles_seq start with 1 increment by 50;
+create sequence if not exists tokens_seq start with 1 increment by 50;
+create sequence if not exists tours_seq start with 1 increment by 50;
+create sequence if not exists tour_departures_seq start with 1 increment by 50;
+create sequence if not exists tour_images_seq start with 1 increment by 50;
+create sequence if not exists users_seq start with 1 increment by 50;
+
+select setval('bookings_seq', greatest((select last_value from bookings_seq), (select coalesce(max(id), 0) from bookings) + 50));
+select setval('categories_seq', greatest((select last_value from categories_seq), (select coalesce(max(id), 0) from categories) + 50));
+select setval('comments_seq', greatest((select last_value from comments_seq), (select coalesce(max(id), 0) from comments) + 50));
+select setval('likes_seq', greatest((select last_value from likes_seq), (select coalesce(max(id), 0) from likes) + 50));
+select setval('payments_seq', greatest((select last_value from payments_seq), (select coalesce(max(id), 0) from payments) + 50));
+select setval('reviews_seq', greatest((select last_value from reviews_seq), (select coalesce(max(id), 0) from reviews) + 50));
+select setval('roles_seq', greatest((select last_value from roles_seq), (select coalesce(max(id), 0) from roles) + 50));
+select setval('tokens_seq', greatest((select last_value from tokens_seq), (select coalesce(max(id), 0) from tokens) + 50));
+select setval('tours_seq', greatest((select last_value from tours_seq), (select coalesce(max(id), 0) from tours) + 50));
+select setval('tour_departures_seq', greatest((select last_value from tour_departures_seq), (select coalesce(max(id), 0) from tour_departures) + 50));
+select setval('tour_images_seq', greatest((select last_value from tour_images_seq), (select coalesce(max(id), 0) from tour_images) + 50));
+select setval('users_seq', greatest((select last_value from users_seq), (select coalesce(max(id), 0) from users) + 50));
@@ -0,0 +1,30 @@
+-- Tokens used to keep both JWTs in full. Only a SHA-256 hash of the refresh token is kept now
+-- (base64url, unpadded, as JwtTokenProvider.hashToken computes it), and each login starts its
+-- own refresh family. Existing rows are converted in place, so signed-in users stay signed in.
+
+alter table tokens add column if not exists family_key varchar(36);
+alter table tokens add column if not exists refresh_token_hash varchar(44);
+alter table tokens add column if not exists rotated_at timestamp(6);
+
+do $$
+begin
+    if exists (select 1 from information_schema.columns
+               where table_schema = current_schema() and table_name = 'tokens' and column_name = 'refresh_token') then
+        update tokens
+        set family_key = token_key,
+            refresh_token_hash = rtrim(translate(encode(sha256(convert_to(refresh_token, 'UTF8')), 'base64'), '+/', '-_'), '=')
+        where refresh_token_hash is null;
+    end if;
+end $$;
+
+-- Anything left cannot be refreshed (no refresh token to hash)
+delete from tokens where refresh_token_hash is null or family_key is null;
+
+alter table tokens alter column family_key set not null;
+alter table tokens alter column refresh_token_hash set not null;
+alter table tokens drop column if exists access_token;
+alter table tokens drop column if exists refresh_token;
+
+create index if not exists idx_tokens_family_key on tokens (family_key);
+create index if not exists idx_tokens_user_id on tokens (user_id);
+create index if not exists idx_tokens_refresh_expires_at on tokens (refresh_expires_at);
@@ -0,0 +1,5 @@
+-- Payments taken for a booking whose hold had already been released and whose seats
+-- could not be taken again wait in REFUND_REQUIRED until they are refunded
+alter table payments drop constraint if exists payments_status_check;
+alter table payments add constraint payments_status_check
+    check (status in ('PENDING','COMPLETED','FAILED','REFUND_REQUIRED','REFUNDED'));
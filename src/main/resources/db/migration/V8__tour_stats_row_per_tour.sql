@@ -0,0 +1,31 @@
+-- Every tour has a tour_stats row, so rating and popularity search can inner join it
+-- and walk idx_tour_stats_rating / idx_tour_stats_likes in order (see TourSpecification).
+-- New tours get an all-zero row from the trigger, whatever inserts them; the periodic
+-- rebuild fills in real figures.
+
+insert into tour_stats (tour_id, rating_sum, review_count, average_rating, like_count,
+                        next_departure_date, has_available_slots, created_at, updated_at)
+select t.id, 0, 0, 0, 0, null, false, now(), now()
+from tours t
+on conflict (tour_id) do nothing;
+
+delete from tour_stats s where not exists (select 1 from tours t where t.id = s.tour_id);
+
+alter table tour_stats drop constraint if exists fk_tour_stats_tour;
+alter table tour_stats add constraint fk_tour_stats_tour
+    foreign key (tour_id) references tours (id) on delete cascade;
+
+create or replace function create_tour_stats_row() returns trigger as $$
+begin
+    insert into tour_stats (tour_id, rating_sum, review_count, average_rating, like_count,
+                            next_departure_date, has_available_slots, created_at, updated_at)
+    values (new.id, 0, 0, 0, 0, null, false, now(), now())
+    on conflict (tour_id) do nothing;
+    return new;
+end;
+$$ language plpgsql;
+
+drop trigger if exists trg_tours_create_stats on tours;
+create trigger trg_tours_create_stats
+    after insert on tours
+    for each row execute function create_tour_stats_row();
@@ -0,0 +1,68 @@
+package sun.asterisk.booking_tour.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class LocalTtlCacheTest {
+
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    void entryWithItsOwnDeadlineExpiresBeforeTheCacheTtl() {
+        LocalTtlCache<String, String> cache = new LocalTtlCache<>(10, ONE_HOUR);
+        long now = System.currentTimeMillis();
+
+        cache.put("expired", "a", now - 1);
+        cache.put("live", "b", now + ONE_HOUR);
+
+        assertThat(cache.get("expired")).isNull();
+        assertThat(cache.get("live")).isEqualTo("b");
+    }
+
+    @Test
+    void deadlineLaterThanTheTtlIsCappedByTheTtl() {
+        LocalTtlCache<String, String> cache = new LocalTtlCache<>(10, 0);
+
+        cache.put("key", "value", System.currentTimeMillis() + ONE_HOUR);
+
+        assertThat(cache.get("key")).isNull();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryWhenFull() {
+        LocalTtlCache<String, String> cache = new LocalTtlCache<>(2, ONE_HOUR);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+
+        cache.put("c", "3");
+
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("3");
+    }
+
+    @Test
+    void nullValuesAreNotStoredAndZeroSizeDisablesTheCache() {
+        LocalTtlCache<String, String> cache = new LocalTtlCache<>(10, ONE_HOUR);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("missing", key -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        cache.get("missing", key -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertThat(loads).hasValue(2);
+
+        LocalTtlCache<String, String> disabled = new LocalTtlCache<>(0, ONE_HOUR);
+        disabled.put("key", "value");
+        assertThat(disabled.get("key")).isNull();
+    }
+}
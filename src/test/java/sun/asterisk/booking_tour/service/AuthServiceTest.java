@@ -0,0 +1,196 @@
+package sun.asterisk.booking_tour.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import sun.asterisk.booking_tour.config.JwtTokenProvider;
+import sun.asterisk.booking_tour.dto.auth.AuthResponse;
+import sun.asterisk.booking_tour.entity.Token;
+import sun.asterisk.booking_tour.entity.User;
+import sun.asterisk.booking_tour.exception.ValidationException;
+import sun.asterisk.booking_tour.repository.TokenRepository;
+import sun.asterisk.booking_tour.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    private static final String REFRESH_TOKEN = "refresh-token";
+    private static final String TOKEN_KEY = "token-key";
+    private static final String FAMILY_KEY = "family-key";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private WebClient webClient;
+
+    @Mock
+    private RoleCacheService roleCacheService;
+
+    @Mock
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AuthService authService;
+
+    @Test
+    void refreshRotatesThePairWithinItsFamily() {
+        User user = user();
+        Token token = storedToken(user, null);
+        presentRefreshToken(token);
+        when(tokenRepository.markRotated(eq(token.getId()), any(LocalDateTime.class))).thenReturn(1);
+        when(jwtTokenProvider.generateTokenKey()).thenReturn("next-key");
+        when(jwtTokenProvider.generateAccessToken(user, "next-key")).thenReturn("next-access");
+        when(jwtTokenProvider.generateRefreshToken(user, "next-key")).thenReturn("next-refresh");
+        when(jwtTokenProvider.hashToken("next-refresh")).thenReturn("hash:next-refresh");
+
+        AuthResponse response = authService.refresh(REFRESH_TOKEN);
+
+        assertThat(response.getAccessToken()).isEqualTo("next-access");
+        assertThat(response.getRefreshToken()).isEqualTo("next-refresh");
+
+        ArgumentCaptor<Token> saved = ArgumentCaptor.forClass(Token.class);
+        verify(tokenRepository).save(saved.capture());
+        assertThat(saved.getValue().getTokenKey()).isEqualTo("next-key");
+        assertThat(saved.getValue().getFamilyKey()).isEqualTo(FAMILY_KEY);
+        assertThat(saved.getValue().getRefreshTokenHash()).isEqualTo("hash:next-refresh");
+        verify(tokenRepository, never()).deleteByFamilyKey(anyString());
+    }
+
+    @Test
+    void reusingARotatedRefreshTokenRevokesTheWholeFamily() {
+        User user = user();
+        Token token = storedToken(user, LocalDateTime.now().minusMinutes(5));
+        presentRefreshToken(token);
+        Token liveSibling = Token.builder()
+                .tokenKey("live-sibling")
+                .familyKey(FAMILY_KEY)
+                .expiresAt(LocalDateTime.now().plusMinutes(30))
+                .build();
+        Token expiredSibling = Token.builder()
+                .tokenKey("expired-sibling")
+                .familyKey(FAMILY_KEY)
+                .expiresAt(LocalDateTime.now().minusMinutes(30))
+                .build();
+        when(tokenRepository.findByFamilyKey(FAMILY_KEY)).thenReturn(List.of(liveSibling, expiredSibling));
+
+        assertThatThrownBy(() -> authService.refresh(REFRESH_TOKEN))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("already been used");
+
+        verify(tokenBlacklistService).blacklistToken(eq("live-sibling"), anyLong());
+        verify(tokenBlacklistService, never()).blacklistToken(eq("expired-sibling"), anyLong());
+        verify(tokenRepository).deleteByFamilyKey(FAMILY_KEY);
+        verify(tokenRepository, never()).markRotated(anyLong(), any());
+        verify(tokenRepository, never()).save(any());
+    }
+
+    @Test
+    void losingAConcurrentRotationIsTreatedAsReuse() {
+        User user = user();
+        Token token = storedToken(user, null);
+        presentRefreshToken(token);
+        when(tokenRepository.markRotated(eq(token.getId()), any(LocalDateTime.class))).thenReturn(0);
+        when(tokenRepository.findByFamilyKey(FAMILY_KEY)).thenReturn(List.of(token));
+
+        assertThatThrownBy(() -> authService.refresh(REFRESH_TOKEN))
+                .isInstanceOf(ValidationException.class);
+
+        verify(tokenRepository).deleteByFamilyKey(FAMILY_KEY);
+        verify(tokenRepository, never()).save(any());
+    }
+
+    @Test
+    void refreshTokenNotMatchingTheStoredHashIsRejected() {
+        Token token = storedToken(user(), null);
+        when(jwtTokenProvider.parseClaims(REFRESH_TOKEN)).thenReturn(refreshClaims());
+        when(tokenRepository.findWithUserByTokenKey(TOKEN_KEY)).thenReturn(Optional.of(token));
+        when(jwtTokenProvider.hashToken(REFRESH_TOKEN)).thenReturn("hash:something-else");
+
+        assertThatThrownBy(() -> authService.refresh(REFRESH_TOKEN))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Invalid or expired refresh token");
+
+        verify(tokenRepository, never()).markRotated(anyLong(), any());
+        verify(tokenRepository, never()).deleteByFamilyKey(anyString());
+    }
+
+    @Test
+    void accessTokenCannotBeUsedToRefresh() {
+        when(jwtTokenProvider.parseClaims(REFRESH_TOKEN)).thenReturn(Jwts.claims()
+                .add("tokenKey", TOKEN_KEY)
+                .build());
+
+        assertThatThrownBy(() -> authService.refresh(REFRESH_TOKEN))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Invalid or expired refresh token");
+
+        verify(tokenRepository, never()).findWithUserByTokenKey(anyString());
+    }
+
+    private void presentRefreshToken(Token token) {
+        when(jwtTokenProvider.parseClaims(REFRESH_TOKEN)).thenReturn(refreshClaims());
+        when(tokenRepository.findWithUserByTokenKey(TOKEN_KEY)).thenReturn(Optional.of(token));
+        when(jwtTokenProvider.hashToken(REFRESH_TOKEN)).thenReturn("hash:" + REFRESH_TOKEN);
+    }
+
+    private static Claims refreshClaims() {
+        return Jwts.claims()
+                .add("type", "refresh")
+                .add("tokenKey", TOKEN_KEY)
+                .build();
+    }
+
+    private static Token storedToken(User user, LocalDateTime rotatedAt) {
+        return Token.builder()
+                .id(10L)
+                .tokenKey(TOKEN_KEY)
+                .familyKey(FAMILY_KEY)
+                .refreshTokenHash("hash:" + REFRESH_TOKEN)
+                .rotatedAt(rotatedAt)
+                .expiresAt(LocalDateTime.now().plusMinutes(30))
+                .refreshExpiresAt(LocalDateTime.now().plusDays(7))
+                .user(user)
+                .build();
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("traveller@example.com");
+        user.setFirstName("Minh");
+        user.setLastName("Tran");
+        return user;
+    }
+}
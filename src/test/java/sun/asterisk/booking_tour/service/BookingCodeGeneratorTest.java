@@ -0,0 +1,66 @@
+package sun.asterisk.booking_tour.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class BookingCodeGeneratorTest {
+
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    @Test
+    void packsTimestampNodeIdAndSequenceIntoBase36() {
+        BookingCodeGenerator generator = generator("513");
+        long before = System.currentTimeMillis() - EPOCH_MILLIS;
+
+        String code = generator.nextCode();
+
+        long after = System.currentTimeMillis() - EPOCH_MILLIS;
+        assertThat(code).startsWith("BK").matches("BK[0-9A-Z]+");
+
+        long id = Long.parseLong(code.substring(2), 36);
+        assertThat(id >>> 22).isBetween(before, after);
+        assertThat((id >>> 12) & 1023).isEqualTo(513);
+        assertThat(id & 4095).isZero();
+    }
+
+    @Test
+    void codesAreUniqueAndIncreasingWithinOneMillisecondAndAcrossSequenceOverflow() {
+        BookingCodeGenerator generator = generator("7");
+        Set<String> codes = new HashSet<>();
+        long previous = -1;
+
+        // More than the 4096 sequence numbers one millisecond holds
+        for (int i = 0; i < 20_000; i++) {
+            String code = generator.nextCode();
+            long id = Long.parseLong(code.substring(2), 36);
+
+            assertThat(id).isGreaterThan(previous);
+            assertThat((id >>> 12) & 1023).isEqualTo(7);
+            assertThat(codes.add(code)).isTrue();
+            previous = id;
+        }
+    }
+
+    @Test
+    void nodeIdOutOfRangeFailsStartup() {
+        assertThatThrownBy(() -> generator("1024"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("booking-code.node-id");
+        assertThatThrownBy(() -> generator("-1"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static BookingCodeGenerator generator(String nodeId) {
+        BookingCodeGenerator generator = new BookingCodeGenerator();
+        ReflectionTestUtils.setField(generator, "configuredNodeId", nodeId);
+        generator.initNodeId();
+        return generator;
+    }
+}
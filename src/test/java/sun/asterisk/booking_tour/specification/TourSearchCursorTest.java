@@ -0,0 +1,84 @@
+package sun.asterisk.booking_tour.specification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import sun.asterisk.booking_tour.dto.tour.TourSearchRequest;
+import sun.asterisk.booking_tour.exception.ValidationException;
+
+class TourSearchCursorTest {
+
+    @Test
+    void roundTripsEverySortKeyType() {
+        assertRoundTrip(request("price", "asc"), new BigDecimal("1250000.00"));
+        assertRoundTrip(request("discount", "desc"), new BigDecimal("15.50"));
+        assertRoundTrip(request("rating", "desc"), 4.75);
+        assertRoundTrip(request("popular", "asc"), 1234L);
+        assertRoundTrip(request("newest", "desc"), LocalDateTime.of(2026, 10, 17, 9, 30, 15, 123_000_000));
+        assertRoundTrip(request("price", "asc"), null);
+    }
+
+    @Test
+    void unknownSortFallsBackToNewest() {
+        TourSearchCursor cursor = TourSearchCursor.after(request("bogus", null), 42L, LocalDateTime.of(2026, 1, 1, 0, 0));
+
+        TourSearchCursor decoded = TourSearchCursor.decode(cursor.encode(), request("newest", "desc"));
+
+        assertThat(decoded.getSortBy()).isEqualTo("newest");
+        assertThat(decoded.getSortOrder()).isEqualTo("desc");
+    }
+
+    @Test
+    void rejectsCursorIssuedForAnotherSort() {
+        String cursor = TourSearchCursor.after(request("rating", "desc"), 42L, 4.5).encode();
+
+        assertThatThrownBy(() -> TourSearchCursor.decode(cursor, request("popular", "desc")))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Cursor does not match the requested sort");
+        assertThatThrownBy(() -> TourSearchCursor.decode(cursor, request("rating", "asc")))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Cursor does not match the requested sort");
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        TourSearchRequest request = request("rating", "desc");
+
+        assertInvalid("not base64 at all!", request);
+        assertInvalid(encode("rating|desc|42"), request);
+        assertInvalid(encode("rating|desc|forty-two|4.5"), request);
+        assertInvalid(encode("rating|desc|42|' OR 1=1 --"), request);
+        assertInvalid(encode("newest|desc|42|yesterday"), request("newest", "desc"));
+    }
+
+    private static void assertRoundTrip(TourSearchRequest request, Comparable<?> sortValue) {
+        String encoded = TourSearchCursor.after(request, 42L, sortValue).encode();
+
+        TourSearchCursor decoded = TourSearchCursor.decode(encoded, request);
+
+        assertThat(decoded.getId()).isEqualTo(42L);
+        assertThat(decoded.getSortValue()).isEqualTo(sortValue);
+        assertThat(encoded).doesNotContain("=", "+", "/");
+    }
+
+    private static void assertInvalid(String cursor, TourSearchRequest request) {
+        assertThatThrownBy(() -> TourSearchCursor.decode(cursor, request))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TourSearchRequest request(String sortBy, String sortOrder) {
+        return TourSearchRequest.builder().sortBy(sortBy).sortOrder(sortOrder).build();
+    }
+}